@@ -25,6 +25,31 @@ tasks.test {
     maxHeapSize = "4G"
 }
 
+// micro-benchmarks in src/jmh, run by "gradlew jmh". They have their own
+// source set instead of the JMH plugin, so that the JMH dependencies are
+// only resolved when the benchmarks are run, not by the build and tests.
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName]
+    .extendsFrom(configurations.implementation.get())
+
+dependencies {
+    jmh.implementationConfigurationName("org.openjdk.jmh:jmh-core:1.37")
+    jmh.annotationProcessorConfigurationName("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the micro-benchmarks."
+    group = "verification"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    // reports the allocation rate besides the time
+    args("-prof", "gc")
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
@@ -0,0 +1,136 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures {@link LiveVariableAnalysis#transferNode}, i.e., the transfer
+ * which the solvers call, over the IR of the methods of the test inputs
+ * of live variable analysis, with plain and indexed facts.
+ * <p>
+ * Each benchmark transfers the out facts of the fixed point into the in
+ * facts of all statements of the input class, which does not change them,
+ * as most transfers do when a solver reaches the fixed point.
+ * Run with "gradlew jmh"; the gc profiler reports the bytes allocated
+ * per call.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LiveVariableBenchmark {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/livevar";
+
+    @Param({"BranchLoop", "Array", "Fibonacci", "Reference"})
+    public String inputClass;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private LiveVariableAnalysis analysis;
+
+    private final List<CFG<Stmt>> cfgs = new ArrayList<>();
+
+    private final List<Stmt> stmts = new ArrayList<>();
+
+    private final List<SetFact<Var>> inFacts = new ArrayList<>();
+
+    private final List<SetFact<Var>> outFacts = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", inputClass,
+                "-a", CFGBuilder.ID});
+        analysis = new LiveVariableAnalysis(new AnalysisConfig(
+                LiveVariableAnalysis.ID, "indexed-fact", indexed));
+        for (JMethod method : World.get().getClassHierarchy()
+                .getClass(inputClass).getDeclaredMethods()) {
+            if (method.isAbstract() || method.isNative()) {
+                continue;
+            }
+            CFG<Stmt> cfg = method.getIR().getResult(CFGBuilder.ID);
+            DataflowResult<Stmt, SetFact<Var>> result = analysis.analyze(method.getIR());
+            for (Stmt stmt : method.getIR()) {
+                cfgs.add(cfg);
+                stmts.add(stmt);
+                inFacts.add(result.getInFact(stmt));
+                outFacts.add(result.getOutFact(stmt));
+            }
+        }
+    }
+
+    /**
+     * Transfers with the def/use summaries which {@link VarDefUse}
+     * caches in the IR, as the solvers do.
+     */
+    @Benchmark
+    public int transferWithDefUse() {
+        int changed = 0;
+        for (int i = 0; i < stmts.size(); ++i) {
+            if (analysis.transferNode(cfgs.get(i), stmts.get(i),
+                    inFacts.get(i), outFacts.get(i))) {
+                ++changed;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Transfers without the CFG, which computes the defs and uses
+     * of each statement again.
+     */
+    @Benchmark
+    public int transfer() {
+        int changed = 0;
+        for (int i = 0; i < stmts.size(); ++i) {
+            if (analysis.transferNode(stmts.get(i),
+                    inFacts.get(i), outFacts.get(i))) {
+                ++changed;
+            }
+        }
+        return changed;
+    }
+}
@@ -31,6 +31,8 @@ import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 
+import java.util.Collection;
+
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
@@ -39,7 +41,9 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
 
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        String kind = getOptions().getString("solver");
+        solver = kind == null ? Solver.makeSolver(this)
+                : Solver.makeSolver(this, kind);
     }
 
     @Override
@@ -48,6 +52,19 @@ public abstract class AbstractDataflowAnalysis<Node, Fact>
         return solver.solve(cfg);
     }
 
+    /**
+     * Updates the result of given IR, which has been computed by
+     * {@link #analyze(IR)}, after given nodes of its CFG have been edited
+     * without changing the structure of the CFG.
+     *
+     * @see Solver#update(CFG, DataflowResult, Collection)
+     */
+    public void update(IR ir, DataflowResult<Node, Fact> result,
+                       Collection<Node> changed) {
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        solver.update(cfg, result, changed);
+    }
+
     /**
      * By default, a data-flow analysis does not have edge transfer, i.e.,
      * does not need to perform transfer for any edges.
@@ -25,6 +25,8 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.Edge;
 
+import java.util.Collection;
+
 /**
  * Template interface for defining data-flow analysis.
  *
@@ -49,6 +51,15 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * Analyses whose facts depend on the method being analyzed, e.g.,
+     * facts indexed by the variables of the method, override this method.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
@@ -64,6 +75,28 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     boolean transferNode(Node node, Fact in, Fact out);
 
+    /**
+     * Node Transfer function for the analysis, which is given the CFG
+     * being solved. Solvers call this method, so that analyses can
+     * make use of per-method information, e.g., cached summaries of
+     * the statements; by default it delegates to
+     * {@link #transferNode(Object, Object, Object)}.
+     *
+     * @return true if the transfer changed the out (in) fact, otherwise false.
+     */
+    default boolean transferNode(CFG<Node> cfg, Node node, Fact in, Fact out) {
+        return transferNode(node, in, out);
+    }
+
+    /**
+     * Notifies this analysis that given nodes of the CFG have been edited,
+     * before a solver updates a result for the edits, so that the analysis
+     * can discard the information it has derived from the old nodes.
+     * By default, this method does nothing.
+     */
+    default void nodesChanged(CFG<Node> cfg, Collection<Node> nodes) {
+    }
+
     /**
      * @return true if this analysis needs to perform transfer for given edge, otherwise false.
      */
@@ -22,14 +22,15 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.IndexedSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
-import pascal.taie.ir.exp.LValue;
-import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
+import java.util.Collection;
+
 /**
  * Implementation of classic live variable analysis.
  */
@@ -38,8 +39,15 @@ public class LiveVariableAnalysis extends
 
     public static final String ID = "livevar";
 
+    /**
+     * Whether to represent facts as bit vectors over the variables
+     * of the analyzed method.
+     */
+    private final boolean indexedFact;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        indexedFact = getOptions().getBooleanOrDefault("indexed-fact", false);
     }
 
     @Override
@@ -50,7 +58,7 @@ public class LiveVariableAnalysis extends
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        return new SetFact<>();
+        return newInitialFact(cfg);
     }
 
     @Override
@@ -59,6 +67,12 @@ public class LiveVariableAnalysis extends
         return new SetFact<>();
     }
 
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return indexedFact ? new IndexedSetFact<>(cfg.getIR().getVars())
+                : newInitialFact();
+    }
+
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
         // TODO - finish me
@@ -68,21 +82,25 @@ public class LiveVariableAnalysis extends
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
         // TODO - finish me
-        SetFact<Var> Newin = new SetFact<>();
-        Newin.set(out);
-        if(stmt.getDef().isPresent()) {
-            LValue def = stmt.getDef().get();
-            if(def instanceof Var) {
-                Newin.remove((Var) def);
-            }
-        }
-        stmt.getUses().stream()
-                .filter(Var.class::isInstance)
-                .map(Var.class::cast)
-                .forEach(Newin::add);
-        boolean changed = !Newin.equals(in);
-        in.set(Newin);
-        return changed;
+        return in.setGenKill(out, VarDefUse.defOf(stmt), VarDefUse.usesOf(stmt));
+    }
 
+    /**
+     * Computes {@code in = use ∪ (out - def)} in place, using the def/use
+     * summaries cached in the IR of given CFG.
+     */
+    @Override
+    public boolean transferNode(CFG<Stmt> cfg, Stmt stmt,
+                                SetFact<Var> in, SetFact<Var> out) {
+        VarDefUse defUse = VarDefUse.of(cfg.getIR());
+        return in.setGenKill(out, defUse.getDef(stmt), defUse.getUses(stmt));
+    }
+
+    @Override
+    public void nodesChanged(CFG<Stmt> cfg, Collection<Stmt> stmts) {
+        VarDefUse defUse = VarDefUse.of(cfg.getIR());
+        stmts.stream()
+                .filter(stmt -> !cfg.isEntry(stmt) && !cfg.isExit(stmt))
+                .forEach(defUse::update);
     }
 }
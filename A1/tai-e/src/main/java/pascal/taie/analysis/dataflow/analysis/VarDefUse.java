@@ -0,0 +1,121 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Summaries of the variables defined and used by each statement of an IR,
+ * which are computed once per IR and shared by all analyses that need them.
+ * The summaries are indexed by {@link Stmt#getIndex()}.
+ */
+public class VarDefUse {
+
+    private static final String KEY = VarDefUse.class.getName();
+
+    private final Var[] defs;
+
+    private final List<List<Var>> uses;
+
+    private VarDefUse(IR ir) {
+        List<Stmt> stmts = ir.getStmts();
+        defs = new Var[stmts.size()];
+        uses = new ArrayList<>(Collections.nCopies(stmts.size(), List.of()));
+        stmts.forEach(this::update);
+    }
+
+    /**
+     * @return the summaries of given IR, which are computed on first request
+     * and then cached in the IR.
+     */
+    public static VarDefUse of(IR ir) {
+        VarDefUse defUse = ir.getResult(KEY);
+        if (defUse == null) {
+            defUse = new VarDefUse(ir);
+            ir.storeResult(KEY, defUse);
+        }
+        return defUse;
+    }
+
+    /**
+     * Recomputes the summary of given statement, which has been edited
+     * or has replaced the statement at the same index.
+     */
+    public void update(Stmt stmt) {
+        int i = stmt.getIndex();
+        defs[i] = defOf(stmt);
+        uses.set(i, usesOf(stmt));
+    }
+
+    /**
+     * @return the variable defined by given statement, or null if the
+     * statement does not define a variable.
+     */
+    static @Nullable Var defOf(Stmt stmt) {
+        LValue def = stmt.getDef().orElse(null);
+        return def instanceof Var var ? var : null;
+    }
+
+    /**
+     * @return the distinct variables used by given statement, in ascending
+     * order of their indexes, as {@link SetFact#setGenKill} requires.
+     */
+    static List<Var> usesOf(Stmt stmt) {
+        return stmt.getUses()
+                .stream()
+                .filter(Var.class::isInstance)
+                .map(Var.class::cast)
+                .distinct()
+                .sorted(Comparator.comparingInt(Var::getIndex))
+                .toList();
+    }
+
+    /**
+     * @return the variable defined by given statement, or null if the
+     * statement does not define a variable.
+     */
+    public @Nullable Var getDef(Stmt stmt) {
+        int i = stmt.getIndex();
+        return i < defs.length ? defs[i] : null;
+    }
+
+    /**
+     * @return the distinct variables used by given statement,
+     * in ascending order of their indexes.
+     * @see #usesOf(Stmt)
+     */
+    public List<Var> getUses(Stmt stmt) {
+        int i = stmt.getIndex();
+        return i < uses.size() ? uses.get(i) : List.of();
+    }
+}
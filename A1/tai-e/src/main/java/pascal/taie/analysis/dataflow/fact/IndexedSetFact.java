@@ -0,0 +1,281 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Streams;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Set-like data-flow facts backed by a bit vector. All facts of a method
+ * share a universe of elements, e.g., {@link pascal.taie.ir.IR#getVars()},
+ * and an element is represented by the bit at its {@link Indexable#getIndex()}.
+ * Union, intersection, copy and equality of two facts over the same
+ * universe are performed word by word, without hashing any element.
+ *
+ * @param <E> type of elements
+ */
+public class IndexedSetFact<E extends Indexable> extends SetFact<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    /**
+     * Universe of elements, where each element is located at its index.
+     */
+    private final List<E> universe;
+
+    private final long[] words;
+
+    /**
+     * Creates an empty fact over given universe.
+     *
+     * @param universe a list that contains every element at the position
+     *                 of its index, e.g., {@link pascal.taie.ir.IR#getVars()}.
+     */
+    public IndexedSetFact(List<E> universe) {
+        super((Void) null);
+        this.universe = universe;
+        this.words = new long[wordIndex(universe.size() - 1) + 1];
+    }
+
+    private IndexedSetFact(IndexedSetFact<E> other) {
+        super((Void) null);
+        this.universe = other.universe;
+        this.words = other.words.clone();
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    /**
+     * @return true if other fact is an indexed fact over the same universe
+     * as this fact, so that word-wise operations apply.
+     */
+    private boolean isCompatible(SetFact<E> other) {
+        return other instanceof IndexedSetFact<E> that &&
+                this.universe == that.universe;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        int i = e.getIndex();
+        int w = wordIndex(i);
+        return w < words.length && (words[w] & (1L << i)) != 0;
+    }
+
+    @Override
+    public boolean add(E e) {
+        int i = e.getIndex();
+        int w = wordIndex(i);
+        long old = words[w];
+        words[w] = old | (1L << i);
+        return words[w] != old;
+    }
+
+    @Override
+    public boolean remove(E e) {
+        int i = e.getIndex();
+        int w = wordIndex(i);
+        long old = words[w];
+        words[w] = old & ~(1L << i);
+        return words[w] != old;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        boolean changed = false;
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            if (filter.test(universe.get(i))) {
+                words[wordIndex(i)] &= ~(1L << i);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        if (isCompatible(other)) {
+            long[] otherWords = ((IndexedSetFact<E>) other).words;
+            long diff = 0;
+            for (int w = 0; w < words.length; ++w) {
+                long old = words[w];
+                words[w] = old | otherWords[w];
+                diff |= words[w] ^ old;
+            }
+            return diff != 0;
+        } else {
+            return super.union(other);
+        }
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        if (isCompatible(other)) {
+            long[] otherWords = ((IndexedSetFact<E>) other).words;
+            long diff = 0;
+            for (int w = 0; w < words.length; ++w) {
+                long old = words[w];
+                words[w] = old & otherWords[w];
+                diff |= words[w] ^ old;
+            }
+            return diff != 0;
+        } else {
+            return super.intersect(other);
+        }
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (isCompatible(other)) {
+            long[] otherWords = ((IndexedSetFact<E>) other).words;
+            System.arraycopy(otherWords, 0, words, 0, words.length);
+        } else {
+            clear();
+            union(other);
+        }
+    }
+
+    @Override
+    public boolean setGenKill(SetFact<E> other, @Nullable E kill, List<E> gen) {
+        if (!isCompatible(other)) {
+            return super.setGenKill(other, kill, gen);
+        }
+        long[] otherWords = ((IndexedSetFact<E>) other).words;
+        int killWord = kill == null ? -1 : wordIndex(kill.getIndex());
+        int g = 0;
+        long diff = 0;
+        for (int w = 0; w < words.length; ++w) {
+            long word = otherWords[w];
+            if (w == killWord) {
+                word &= ~(1L << kill.getIndex());
+            }
+            // gen is sorted by index, thus its elements in the current
+            // word (if any) are next to each other
+            while (g < gen.size() && wordIndex(gen.get(g).getIndex()) == w) {
+                word |= 1L << gen.get(g++).getIndex();
+            }
+            diff |= words[w] ^ word;
+            words[w] = word;
+        }
+        assert g == gen.size() : "gen is not sorted by index: " + gen;
+        return diff != 0;
+    }
+
+    @Override
+    public IndexedSetFact<E> copy() {
+        return new IndexedSetFact<>(this);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return IntStream.iterate(nextSetBit(0), i -> i >= 0, i -> nextSetBit(i + 1))
+                .mapToObj(universe::get);
+    }
+
+    @Override
+    Iterable<E> elements() {
+        return stream()::iterator;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * @return the index of the first element in this fact whose index
+     * is greater than or equal to {@code from}, or -1 if there is none.
+     */
+    private int nextSetBit(int from) {
+        int w = wordIndex(from);
+        if (w >= words.length) {
+            return -1;
+        }
+        long word = words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof IndexedSetFact<?> that && this.universe == that.universe) {
+            return Arrays.equals(words, that.words);
+        }
+        if (!(o instanceof SetFact<?> that)) {
+            return false;
+        }
+        // fall back to element-wise comparison with other kinds of facts
+        @SuppressWarnings("unchecked")
+        SetFact<E> other = (SetFact<E>) that;
+        return size() == other.size() && other.stream().allMatch(this::contains);
+    }
+
+    @Override
+    public int hashCode() {
+        // consistent with Set.hashCode(), so that equal facts of
+        // different kinds have the same hash code
+        return stream().mapToInt(Object::hashCode).sum();
+    }
+
+    @Override
+    public String toString() {
+        return Streams.toString(stream());
+    }
+}
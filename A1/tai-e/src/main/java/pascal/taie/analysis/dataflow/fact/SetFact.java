@@ -25,8 +25,10 @@ package pascal.taie.analysis.dataflow.fact;
 import pascal.taie.util.collection.CollectionUtils;
 import pascal.taie.util.collection.Sets;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -48,6 +50,16 @@ public class SetFact<E> {
         this(Collections.emptySet());
     }
 
+    /**
+     * Creates a fact whose elements are not kept in {@link #set}, which is
+     * left empty and immutable. Subclasses that keep their elements by
+     * themselves, e.g., {@link IndexedSetFact}, use this constructor and
+     * override every method that accesses {@link #set}.
+     */
+    SetFact(Void noStorage) {
+        set = Collections.emptySet();
+    }
+
     /**
      * @return true if this set contains the specified element, otherwise false.
      */
@@ -89,7 +101,11 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean union(SetFact<E> other) {
-        return set.addAll(other.set);
+        boolean changed = false;
+        for (E e : other.elements()) {
+            changed |= add(e);
+        }
+        return changed;
     }
 
     /**
@@ -107,7 +123,7 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean intersect(SetFact<E> other) {
-        return set.retainAll(other.set);
+        return removeIf(e -> !other.contains(e));
     }
 
     /**
@@ -127,6 +143,69 @@ public class SetFact<E> {
         union(other);
     }
 
+    /**
+     * Sets the content of this fact to {@code gen ∪ (other - {kill})},
+     * i.e., the result of a gen/kill transfer of other fact, without
+     * creating any temporary fact.
+     * <p>
+     * The elements of the result which are already in this fact are
+     * counted first, and this fact is only updated if the count shows
+     * that it lacks some elements or holds stale ones. In the common case,
+     * i.e., the fact is transferred again without changing, the only work
+     * is one traversal of other fact, which creates no other objects.
+     *
+     * <p>
+     * If the elements are {@link pascal.taie.util.Indexable}, {@code gen}
+     * must be sorted in ascending order of their indexes: subclasses such
+     * as {@link IndexedSetFact} consume it word by word in one pass, and
+     * would miss the elements which are out of order.
+     *
+     * @param kill the element to be killed, or null if there is none
+     * @param gen  the distinct elements to be generated, in ascending order
+     *             of their indexes if they are indexable
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean setGenKill(SetFact<E> other, @Nullable E kill, List<E> gen) {
+        // size of the result, and the number of its elements in this fact
+        int size = 0, present = 0;
+        for (E e : other.elements()) {
+            if (!e.equals(kill)) {
+                ++size;
+                if (contains(e)) {
+                    ++present;
+                }
+            }
+        }
+        for (int i = 0; i < gen.size(); ++i) {
+            E e = gen.get(i);
+            // the elements of other fact (except kill) have been counted
+            if (e.equals(kill) || !other.contains(e)) {
+                ++size;
+                if (contains(e)) {
+                    ++present;
+                }
+            }
+        }
+        if (present == size && size() == size) {
+            return false;
+        }
+        if (size() > present) {
+            removeIf(e -> !gen.contains(e) &&
+                    (e.equals(kill) || !other.contains(e)));
+        }
+        if (present < size) {
+            for (E e : other.elements()) {
+                if (!e.equals(kill)) {
+                    add(e);
+                }
+            }
+            for (int i = 0; i < gen.size(); ++i) {
+                add(gen.get(i));
+            }
+        }
+        return true;
+    }
+
     /**
      * Creates and returns a copy of this fact.
      */
@@ -149,6 +228,14 @@ public class SetFact<E> {
         return set.stream();
     }
 
+    /**
+     * @return the elements of this fact, for iterating over them
+     * without creating a stream.
+     */
+    Iterable<E> elements() {
+        return set;
+    }
+
     public int size() {
         return set.size();
     }
@@ -158,6 +245,9 @@ public class SetFact<E> {
         if (this == o) {
             return true;
         }
+        if (o instanceof IndexedSetFact<?> that) {
+            return that.equals(this);
+        }
         if (!(o instanceof SetFact<?> that)) {
             return false;
         }
@@ -26,6 +26,8 @@ import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
+import java.util.List;
+
 class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
 
     public IterativeSolver(DataflowAnalysis<Node, Fact> analysis) {
@@ -34,24 +36,64 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
 
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        throw new UnsupportedOperationException();
+        sweepForward(cfg, result, cfg);
     }
 
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
+        sweepBackward(cfg, result, cfg);
+    }
+
+    @Override
+    protected void doUpdateForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                   List<Node> region) {
+        sweepForward(cfg, result, region);
+    }
+
+    /**
+     * Only sweeps the nodes in the region, as the facts of other nodes
+     * are not affected by the update.
+     */
+    @Override
+    protected void doUpdateBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                    List<Node> region) {
+        sweepBackward(cfg, result, region);
+    }
+
+    private void sweepForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                              Iterable<Node> nodes) {
+        boolean changed;
+        do {
+            changed = false;
+            for (Node node : nodes) {
+                if (!cfg.isEntry(node)) {
+                    Fact in = result.getInFact(node);
+                    for (Node pred : cfg.getPredsOf(node)) {
+                        analysis.meetInto(result.getOutFact(pred), in);
+                    }
+                    if (analysis.transferNode(cfg, node, in, result.getOutFact(node))) {
+                        changed = true;
+                    }
+                }
+            }
+        } while (changed);
+    }
+
+    private void sweepBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                               Iterable<Node> nodes) {
         boolean flag = true;
         while(flag){
             flag = false;
-            for (Node node : cfg) {
+            for (Node node : nodes) {
                 if(node != cfg.getExit()) {
                     if(result.getOutFact(node) == null) {
-                        result.setOutFact(node, analysis.newInitialFact());
+                        result.setOutFact(node, analysis.newInitialFact(cfg));
                     }
                     for (Node succ : cfg.getSuccsOf(node)) {
                         analysis.meetInto(result.getInFact(succ), result.getOutFact(node));
                     }
-                    if (analysis.transferNode(node, result.getInFact(node), result.getOutFact(node))) {
+                    if (analysis.transferNode(cfg, node, result.getInFact(node), result.getOutFact(node))) {
                         flag = true;
                     }
                 }
@@ -26,6 +26,20 @@ import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
 /**
  * Base class for data-flow analysis solver, which provides common
  * functionalities for different solver implementations.
@@ -35,6 +49,17 @@ import pascal.taie.analysis.graph.cfg.CFG;
  */
 public abstract class Solver<Node, Fact> {
 
+    /**
+     * Kind of the solver which only revisits nodes whose input changed.
+     */
+    public static final String WORK_LIST = "worklist";
+
+    /**
+     * Kind of the round-robin solver which sweeps all nodes until
+     * no fact changes.
+     */
+    public static final String ITERATIVE = "iterative";
+
     protected final DataflowAnalysis<Node, Fact> analysis;
 
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
@@ -46,7 +71,23 @@ public abstract class Solver<Node, Fact> {
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
-        return new IterativeSolver<>(analysis);
+        return makeSolver(analysis, WORK_LIST);
+    }
+
+    /**
+     * Static factory method to create a new solver of given kind
+     * for given analysis.
+     *
+     * @param kind {@link #WORK_LIST} or {@link #ITERATIVE}
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, String kind) {
+        return switch (kind) {
+            case WORK_LIST -> new WorkListSolver<>(analysis);
+            case ITERATIVE -> new IterativeSolver<>(analysis);
+            default -> throw new IllegalArgumentException(
+                    "Unknown solver: " + kind);
+        };
     }
 
     /**
@@ -61,6 +102,138 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * Updates a result previously computed by {@link #solve} for given CFG
+     * after the nodes in {@code changed} have been edited without changing
+     * the structure of the CFG.
+     * <p>
+     * The facts are reset and solved again one strongly connected component
+     * of the CFG at a time, in the direction of the analysis, starting from
+     * the components of the changed nodes. Other components are only reset
+     * if the facts flowing into them have changed, so the reset region ends
+     * where the new facts equal the old ones. Growing the old facts in place
+     * is not enough, even for monotone analyses: facts that an edit no longer
+     * supports could keep supporting themselves around loops. Each component
+     * in the region is thus reset as a whole, which makes the updated result
+     * equal to solving the CFG from scratch.
+     */
+    public void update(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                       Collection<Node> changed) {
+        analysis.nodesChanged(cfg, changed);
+        boolean forward = analysis.isForward();
+        List<List<Node>> components = findComponents(cfg, changed);
+        Map<Node, Integer> componentIndexes = new HashMap<>();
+        for (int i = 0; i < components.size(); ++i) {
+            for (Node node : components.get(i)) {
+                componentIndexes.put(node, i);
+            }
+        }
+        BitSet reset = new BitSet(components.size());
+        changed.forEach(node -> reset.set(componentIndexes.get(node)));
+        // the components are in topological order, so the facts flowing
+        // into a component are final when the component is reached
+        for (int i = reset.nextSetBit(0); i >= 0; i = reset.nextSetBit(i + 1)) {
+            List<Node> component = components.get(i);
+            Map<Node, Fact> oldFacts = new HashMap<>();
+            for (Node node : component) {
+                // boundary facts do not depend on other nodes
+                if (forward ? !cfg.isEntry(node) : !cfg.isExit(node)) {
+                    oldFacts.put(node, forward ?
+                            result.getOutFact(node) : result.getInFact(node));
+                    result.setInFact(node, analysis.newInitialFact(cfg));
+                    result.setOutFact(node, analysis.newInitialFact(cfg));
+                }
+            }
+            if (forward) {
+                doUpdateForward(cfg, result, component);
+            } else {
+                doUpdateBackward(cfg, result, component);
+            }
+            oldFacts.forEach((node, oldFact) -> {
+                if (!oldFact.equals(forward ?
+                        result.getOutFact(node) : result.getInFact(node))) {
+                    for (Node next : forward ?
+                            cfg.getSuccsOf(node) : cfg.getPredsOf(node)) {
+                        reset.set(componentIndexes.get(next));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Finds the strongly connected components of the nodes reachable from
+     * {@code changed} along the direction of the analysis, by Tarjan's
+     * algorithm. The traversal keeps its own stack, so that deep CFGs
+     * of large methods do not overflow the call stack.
+     *
+     * @return the components in topological order along the direction
+     * of the analysis.
+     */
+    private List<List<Node>> findComponents(CFG<Node> cfg, Collection<Node> changed) {
+        Function<Node, Set<Node>> nexts = analysis.isForward() ?
+                cfg::getSuccsOf : cfg::getPredsOf;
+        Map<Node, Integer> indexes = new HashMap<>();
+        Map<Node, Integer> lowLinks = new HashMap<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Set<Node> onStack = new HashSet<>();
+        Deque<Node> path = new ArrayDeque<>();
+        Deque<Iterator<Node>> iters = new ArrayDeque<>();
+        List<List<Node>> components = new ArrayList<>();
+        for (Node root : changed) {
+            if (indexes.containsKey(root)) {
+                continue;
+            }
+            Node next = root;
+            do {
+                if (next != null) {
+                    // enters next node
+                    indexes.put(next, indexes.size());
+                    lowLinks.put(next, indexes.get(next));
+                    stack.push(next);
+                    onStack.add(next);
+                    path.push(next);
+                    iters.push(nexts.apply(next).iterator());
+                }
+                Node node = path.peek();
+                Iterator<Node> iter = iters.peek();
+                next = null;
+                if (iter.hasNext()) {
+                    Node succ = iter.next();
+                    Integer index = indexes.get(succ);
+                    if (index == null) {
+                        next = succ;
+                    } else if (onStack.contains(succ)) {
+                        lowLinks.merge(node, index, Math::min);
+                    }
+                } else {
+                    // leaves the node
+                    path.pop();
+                    iters.pop();
+                    int lowLink = lowLinks.get(node);
+                    if (!path.isEmpty()) {
+                        lowLinks.merge(path.peek(), lowLink, Math::min);
+                    }
+                    if (lowLink == indexes.get(node)) {
+                        List<Node> component = new ArrayList<>();
+                        Node member;
+                        do {
+                            member = stack.pop();
+                            onStack.remove(member);
+                            component.add(member);
+                        } while (member != node);
+                        // starts the component from the node entered first
+                        Collections.reverse(component);
+                        components.add(component);
+                    }
+                }
+            } while (!path.isEmpty());
+        }
+        // Tarjan's algorithm finds the components in reverse topological order
+        Collections.reverse(components);
+        return components;
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
@@ -77,7 +250,14 @@ public abstract class Solver<Node, Fact> {
     }
 
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        throw new UnsupportedOperationException();
+        result.setInFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
+        result.setOutFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
+        for (Node node : cfg) {
+            if (!cfg.isEntry(node)) {
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
+            }
+        }
     }
 
     protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
@@ -85,7 +265,8 @@ public abstract class Solver<Node, Fact> {
         result.setInFact(cfg.getExit(), analysis.newBoundaryFact(cfg));
         for(Node node : cfg) {
             if(!cfg.isExit(node)) {
-                result.setInFact(node, analysis.newInitialFact());
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
             }
         }
     }
@@ -104,4 +285,19 @@ public abstract class Solver<Node, Fact> {
     protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
     protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+
+    /**
+     * Solves the facts of the nodes in {@code region}, i.e., a strongly
+     * connected component of the CFG, which have been reset, while the facts
+     * flowing into the region are already final. Only the nodes in the
+     * region need to be solved, in the given order.
+     */
+    protected abstract void doUpdateForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                            List<Node> region);
+
+    /**
+     * Backward counterpart of {@link #doUpdateForward}.
+     */
+    protected abstract void doUpdateBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                             List<Node> region);
 }
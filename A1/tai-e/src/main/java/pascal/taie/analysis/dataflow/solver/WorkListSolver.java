@@ -0,0 +1,215 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static pascal.taie.util.collection.Maps.newMap;
+
+/**
+ * Work-list solver which only revisits the nodes whose input may have
+ * changed. Pending nodes are processed in reverse post-order of the CFG
+ * for forward analyses, and in post-order for backward analyses, so that
+ * most nodes see the final facts of their (forward or backward)
+ * predecessors before they are transferred.
+ */
+class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        WorkList<Node> workList = new WorkList<>(reversePostOrder(cfg));
+        workList.addAll();
+        solveForward(cfg, result, workList);
+    }
+
+    @Override
+    protected void doUpdateForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                   List<Node> region) {
+        WorkList<Node> workList = new WorkList<>(region);
+        workList.addAll();
+        solveForward(cfg, result, workList);
+    }
+
+    private void solveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                              WorkList<Node> workList) {
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            if (cfg.isEntry(node)) {
+                continue;
+            }
+            Fact in = result.getInFact(node);
+            for (Node pred : cfg.getPredsOf(node)) {
+                analysis.meetInto(result.getOutFact(pred), in);
+            }
+            if (analysis.transferNode(cfg, node, in, result.getOutFact(node))) {
+                cfg.getSuccsOf(node).forEach(workList::add);
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        WorkList<Node> workList = new WorkList<>(postOrder(cfg));
+        workList.addAll();
+        solveBackward(cfg, result, workList);
+    }
+
+    @Override
+    protected void doUpdateBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                    List<Node> region) {
+        WorkList<Node> workList = new WorkList<>(region);
+        workList.addAll();
+        solveBackward(cfg, result, workList);
+    }
+
+    private void solveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                               WorkList<Node> workList) {
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            if (cfg.isExit(node)) {
+                continue;
+            }
+            Fact out = result.getOutFact(node);
+            for (Node succ : cfg.getSuccsOf(node)) {
+                analysis.meetInto(result.getInFact(succ), out);
+            }
+            if (analysis.transferNode(cfg, node, result.getInFact(node), out)) {
+                cfg.getPredsOf(node).forEach(workList::add);
+            }
+        }
+    }
+
+    /**
+     * @return nodes of given CFG in reverse post-order of a depth-first
+     * traversal starting from the entry. Nodes that are unreachable from
+     * the entry are appended at the end, so that every node is covered.
+     */
+    private static <Node> List<Node> reversePostOrder(CFG<Node> cfg) {
+        List<Node> postOrder = new ArrayList<>(cfg.getNumberOfNodes());
+        Set<Node> visited = new HashSet<>();
+        dfs(cfg, cfg.getEntry(), visited, postOrder);
+        Collections.reverse(postOrder);
+        for (Node node : cfg) {
+            if (!visited.contains(node)) {
+                postOrder.add(node);
+            }
+        }
+        return postOrder;
+    }
+
+    private static <Node> List<Node> postOrder(CFG<Node> cfg) {
+        List<Node> postOrder = reversePostOrder(cfg);
+        Collections.reverse(postOrder);
+        return postOrder;
+    }
+
+    /**
+     * Iterative depth-first traversal, so that deep CFGs of large methods
+     * do not overflow the call stack.
+     */
+    private static <Node> void dfs(CFG<Node> cfg, Node entry,
+                                   Set<Node> visited, List<Node> postOrder) {
+        List<Node> stack = new ArrayList<>();
+        List<Iterator<Node>> iters = new ArrayList<>();
+        visited.add(entry);
+        stack.add(entry);
+        iters.add(cfg.getSuccsOf(entry).iterator());
+        while (!stack.isEmpty()) {
+            int top = stack.size() - 1;
+            Iterator<Node> it = iters.get(top);
+            if (it.hasNext()) {
+                Node succ = it.next();
+                if (visited.add(succ)) {
+                    stack.add(succ);
+                    iters.add(cfg.getSuccsOf(succ).iterator());
+                }
+            } else {
+                postOrder.add(stack.remove(top));
+                iters.remove(top);
+            }
+        }
+    }
+
+    /**
+     * Priority work-list over a fixed node order. Each node is queued at
+     * most once, and {@link #poll()} always returns the pending node with
+     * the smallest position in the order.
+     */
+    private static class WorkList<Node> {
+
+        private final List<Node> order;
+
+        private final Map<Node, Integer> positions;
+
+        private final BitSet pending;
+
+        private WorkList(List<Node> order) {
+            this.order = order;
+            this.positions = newMap(order.size());
+            for (int i = 0; i < order.size(); ++i) {
+                positions.put(order.get(i), i);
+            }
+            this.pending = new BitSet(order.size());
+        }
+
+        /**
+         * Adds given node to this work-list, unless the node
+         * is not in the order, i.e., not to be solved.
+         */
+        private void add(Node node) {
+            Integer i = positions.get(node);
+            if (i != null) {
+                pending.set(i);
+            }
+        }
+
+        private void addAll() {
+            pending.set(0, order.size());
+        }
+
+        private boolean isEmpty() {
+            return pending.isEmpty();
+        }
+
+        private Node poll() {
+            int i = pending.nextSetBit(0);
+            pending.clear(i);
+            return order.get(i);
+        }
+    }
+}
@@ -24,14 +24,25 @@ package pascal.taie.analysis.dataflow.analysis;
 
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.solver.Solver;
+
+import java.util.List;
 
 public class LiveVarTest {
 
+    private static final List<String> INPUT_CLASSES = List.of(
+            "Assign", "Branch", "BranchLoop", "Array", "Fibonacci", "Reference");
+
     void testLV(String inputClass) {
         Tests.test(inputClass, "src/test/resources/dataflow/livevar",
                 LiveVariableAnalysis.ID, "strongly:false");
     }
 
+    void testLV(String inputClass, String opts) {
+        Tests.test(inputClass, "src/test/resources/dataflow/livevar",
+                LiveVariableAnalysis.ID, "strongly:false;" + opts);
+    }
+
     @Test
     public void testAssign() {
         testLV("Assign");
@@ -61,4 +72,16 @@ public class LiveVarTest {
     public void Reference() {
         testLV("Reference");
     }
+
+    @Test
+    public void testIterativeSolver() {
+        INPUT_CLASSES.forEach(inputClass ->
+                testLV(inputClass, "solver:" + Solver.ITERATIVE));
+    }
+
+    @Test
+    public void testIndexedFact() {
+        INPUT_CLASSES.forEach(inputClass ->
+                testLV(inputClass, "indexed-fact:true"));
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.util.Indexable;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+public class IndexedSetFactTest {
+
+    private record Elem(int index) implements Indexable {
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+    }
+
+    private static final List<Elem> UNIVERSE = IntStream.range(0, 100)
+            .mapToObj(Elem::new)
+            .toList();
+
+    private static IndexedSetFact<Elem> indexed(int... indexes) {
+        IndexedSetFact<Elem> fact = new IndexedSetFact<>(UNIVERSE);
+        for (int i : indexes) {
+            fact.add(UNIVERSE.get(i));
+        }
+        return fact;
+    }
+
+    private static SetFact<Elem> plain(int... indexes) {
+        SetFact<Elem> fact = new SetFact<>();
+        for (int i : indexes) {
+            fact.add(UNIVERSE.get(i));
+        }
+        return fact;
+    }
+
+    @Test
+    public void testUnionWithIndexed() {
+        SetFact<Elem> fact = plain(1);
+        Assert.assertTrue(fact.union(indexed(1, 70)));
+        Assert.assertEquals(plain(1, 70), fact);
+        Assert.assertFalse(fact.union(indexed(70)));
+    }
+
+    @Test
+    public void testIntersectWithIndexed() {
+        SetFact<Elem> fact = plain(1, 2, 70);
+        Assert.assertTrue(fact.intersect(indexed(2, 70, 99)));
+        Assert.assertEquals(plain(2, 70), fact);
+    }
+
+    @Test
+    public void testSetToIndexed() {
+        SetFact<Elem> fact = plain(5);
+        fact.set(indexed(3, 64));
+        Assert.assertEquals(plain(3, 64), fact);
+    }
+
+    @Test
+    public void testSetGenKill() {
+        Elem kill = UNIVERSE.get(2);
+        List<Elem> gen = List.of(UNIVERSE.get(4), UNIVERSE.get(65));
+        SetFact<Elem> expected = plain(1, 4, 65, 70);
+        // indexed over indexed
+        SetFact<Elem> fact = indexed(3);
+        Assert.assertTrue(fact.setGenKill(indexed(1, 2, 70), kill, gen));
+        Assert.assertEquals(expected, fact);
+        // indexed over plain
+        fact = indexed(3);
+        Assert.assertTrue(fact.setGenKill(plain(1, 2, 70), kill, gen));
+        Assert.assertEquals(expected, fact);
+        // plain over indexed
+        fact = plain(3);
+        Assert.assertTrue(fact.setGenKill(indexed(1, 2, 70), kill, gen));
+        Assert.assertEquals(expected, fact);
+        Assert.assertFalse(fact.setGenKill(indexed(1, 2, 70), kill, gen));
+    }
+
+    private static int[] randomIndexes(Random random) {
+        return random.ints(random.nextInt(8), 0, 10).toArray();
+    }
+
+    @Test
+    public void testSetGenKillRandom() {
+        Random random = new Random(0);
+        for (int i = 0; i < 2000; ++i) {
+            int[] current = randomIndexes(random);
+            int[] other = randomIndexes(random);
+            Elem kill = random.nextBoolean() ? UNIVERSE.get(random.nextInt(10)) : null;
+            List<Elem> gen = IntStream.of(randomIndexes(random))
+                    .distinct()
+                    .sorted()
+                    .mapToObj(UNIVERSE::get)
+                    .toList();
+            Set<Elem> expected = new HashSet<>();
+            IntStream.of(other).mapToObj(UNIVERSE::get).forEach(expected::add);
+            expected.remove(kill);
+            expected.addAll(gen);
+            boolean changed = !expected.equals(
+                    Set.copyOf(plain(current).stream().toList()));
+            for (boolean indexedFact : new boolean[]{false, true}) {
+                for (boolean indexedOther : new boolean[]{false, true}) {
+                    SetFact<Elem> fact = indexedFact ? indexed(current) : plain(current);
+                    Assert.assertEquals(changed, fact.setGenKill(
+                            indexedOther ? indexed(other) : plain(other), kill, gen));
+                    Assert.assertEquals(expected, Set.copyOf(fact.stream().toList()));
+                    Assert.assertEquals(expected.size(), fact.size());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEqualsAcrossKinds() {
+        Assert.assertEquals(indexed(0, 63, 64), plain(0, 63, 64));
+        Assert.assertEquals(plain(0, 63, 64), indexed(0, 63, 64));
+        Assert.assertEquals(plain(0, 63, 64).hashCode(),
+                indexed(0, 63, 64).hashCode());
+        Assert.assertFalse(indexed(0).equals(plain(0, 1)));
+    }
+}
@@ -25,6 +25,8 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.Edge;
 
+import java.util.Collection;
+
 /**
  * Template interface for defining data-flow analysis.
  *
@@ -49,6 +51,24 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * Analyses whose facts depend on the method being analyzed, e.g.,
+     * facts indexed by the variables of the method, override this method.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
+    /**
+     * Notifies this analysis that given nodes of the CFG have been edited,
+     * before a solver updates a result for the edits, so that the analysis
+     * can discard the information it has derived from the old nodes.
+     * By default, this method does nothing.
+     */
+    default void nodesChanged(CFG<Node> cfg, Collection<Node> nodes) {
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
@@ -36,8 +36,15 @@ public class ConstantPropagation extends
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether to represent facts as dense arrays over the variables
+     * of the analyzed method.
+     */
+    private final boolean indexedFact;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        indexedFact = getOptions().getBooleanOrDefault("indexed-fact", false);
     }
 
     @Override
@@ -48,7 +55,7 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        CPFact fact = new CPFact();
+        CPFact fact = newInitialFact(cfg);
         for (Var var : cfg.getIR().getParams()) {
             if(ConstantPropagation.canHoldInt(var)) {
                 fact.update(var, Value.getNAC());
@@ -63,9 +70,19 @@ public class ConstantPropagation extends
         return new CPFact();
     }
 
+    @Override
+    public CPFact newInitialFact(CFG<Stmt> cfg) {
+        return indexedFact ? new IndexedCPFact(cfg.getIR().getVars())
+                : newInitialFact();
+    }
+
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
+        if (target instanceof IndexedCPFact indexed) {
+            indexed.meet(fact);
+            return;
+        }
         for(Var var: fact.keySet()) {
             target.update(var, meetValue(fact.get(var), target.get(var)));
         }
@@ -98,9 +115,7 @@ public class ConstantPropagation extends
             if ((stmt.getDef().get() instanceof Var lvalue)){
                 if(ConstantPropagation.canHoldInt(lvalue)) {
                     RValue rvalue = ((DefinitionStmt<Var, RValue>)stmt).getRValue();
-                    CPFact Newin = in.copy();
-                    Newin.update(lvalue, evaluate(rvalue, in));
-                    return out.copyFrom(Newin);
+                    return out.copyFromWith(in, lvalue, evaluate(rvalue, in));
                 }
             }
         }
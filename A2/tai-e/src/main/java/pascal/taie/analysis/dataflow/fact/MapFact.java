@@ -24,6 +24,7 @@ package pascal.taie.analysis.dataflow.fact;
 
 import pascal.taie.util.collection.Maps;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
@@ -54,6 +55,16 @@ public class MapFact<K, V> {
         this.map = Maps.newHybridMap(map);
     }
 
+    /**
+     * Constructs a new MapFact whose mappings are not kept in {@link #map},
+     * which is left empty and immutable. Subclasses that keep their mappings
+     * by themselves use this constructor and override every method that
+     * accesses {@link #map}.
+     */
+    protected MapFact(Void noStorage) {
+        this.map = Collections.emptyMap();
+    }
+
     /**
      * @return the value to which the specified key is mapped,
      * or null if this map contains no mapping for the key.
@@ -88,7 +99,7 @@ public class MapFact<K, V> {
      */
     public boolean copyFrom(MapFact<K, V> fact) {
         boolean changed = false;
-        for (Map.Entry<K, V> entry : fact.map.entrySet()) {
+        for (Map.Entry<K, V> entry : fact.mappings()) {
             changed |= update(entry.getKey(), entry.getValue());
         }
         return changed;
@@ -122,6 +133,14 @@ public class MapFact<K, V> {
         return map.entrySet().stream();
     }
 
+    /**
+     * @return all entries (key-value mappings) in this fact, for iterating
+     * over them without creating a stream.
+     */
+    protected Iterable<Map.Entry<K, V>> mappings() {
+        return map.entrySet();
+    }
+
     /**
      * Performs the given action for each entry(key-value mapping) in this fact
      * until all entries have been processed or the action throws an exception.
@@ -28,6 +28,9 @@ import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
@@ -39,10 +42,22 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
-        ArrayList<Node> work_list = new ArrayList<Node>();
-        for (Node node : cfg) {
-            work_list.add(node);
-        }
+        solveForward(cfg, result, cfg.getNodes());
+    }
+
+    @Override
+    protected void doUpdateForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                   List<Node> region) {
+        solveForward(cfg, result, new LinkedHashSet<>(region));
+    }
+
+    /**
+     * Solves the facts of given nodes; successors out of the nodes
+     * are not added to the work-list.
+     */
+    private void solveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                              Set<Node> nodes) {
+        ArrayList<Node> work_list = new ArrayList<Node>(nodes);
         while(!work_list.isEmpty()) {
             Node node = work_list.remove(0);
             Fact in = result.getInFact(node);
@@ -51,7 +66,11 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
                 analysis.meetInto(result.getOutFact(p), in);
             }
             if(analysis.transferNode(node, in, out)) {
-                work_list.addAll(cfg.getSuccsOf(node));
+                for (Node succ : cfg.getSuccsOf(node)) {
+                    if (nodes.contains(succ)) {
+                        work_list.add(succ);
+                    }
+                }
             }
         }
     }
@@ -25,13 +25,24 @@ package pascal.taie.analysis.dataflow.analysis.constprop;
 import org.junit.Test;
 import pascal.taie.analysis.Tests;
 
+import java.util.List;
+
 public class CPTest {
 
+    private static final List<String> INPUT_CLASSES = List.of(
+            "Assign", "SimpleConstant", "SimpleBinary", "SimpleBranch",
+            "SimpleChar", "BranchConstant", "Interprocedural");
+
     void testCP(String inputClass) {
         Tests.test(inputClass, "src/test/resources/dataflow/constprop/",
                 ConstantPropagation.ID, "edge-refine:false");
     }
 
+    void testCP(String inputClass, String opts) {
+        Tests.test(inputClass, "src/test/resources/dataflow/constprop/",
+                ConstantPropagation.ID, "edge-refine:false;" + opts);
+    }
+
     @Test
     public void testAssign() {
         testCP("Assign");
@@ -66,4 +77,10 @@ public class CPTest {
     public void testInterprocedural() {
         testCP("Interprocedural");
     }
+
+    @Test
+    public void testIndexedFact() {
+        INPUT_CLASSES.forEach(inputClass ->
+                testCP(inputClass, "indexed-fact:true"));
+    }
 }
@@ -39,8 +39,11 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -164,20 +167,38 @@ public class ResultProcessor extends ProgramAnalysis {
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
+    /**
+     * Processes the results of the methods in parallel. Each method is
+     * dumped (or compared) into a separate buffer, and the buffers are
+     * emitted in the order of {@code methods}, so that the output is
+     * deterministic regardless of the scheduling.
+     */
     private void processResults(Stream<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
-        methods.forEach(method ->
-                analyses.forEach(id -> {
-                    switch (action) {
-                        case "dump" -> dumpResult(method, id, resultGetter);
-                        case "compare" -> compareResult(method, id, resultGetter);
-                    }
-                })
-        );
+        switch (action) {
+            case "dump" -> methods.parallel()
+                    .map(method -> {
+                        StringWriter buffer = new StringWriter();
+                        PrintWriter writer = new PrintWriter(buffer);
+                        analyses.forEach(id ->
+                                dumpResult(writer, method, id, resultGetter));
+                        writer.flush();
+                        return buffer.toString();
+                    })
+                    .forEachOrdered(out::print);
+            case "compare" -> methods.parallel()
+                    .map(method -> {
+                        List<String> found = new ArrayList<>();
+                        analyses.forEach(id ->
+                                compareResult(found, method, id, resultGetter));
+                        return found;
+                    })
+                    .forEachOrdered(mismatches::addAll);
+        }
     }
 
-    private void dumpResult(JMethod method, String id,
-                            BiFunction<JMethod, String, ?> resultGetter) {
+    private static void dumpResult(PrintWriter out, JMethod method, String id,
+                                   BiFunction<JMethod, String, ?> resultGetter) {
         out.printf("-------------------- %s (%s) --------------------%n", method, id);
         Object result = resultGetter.apply(method, id);
         if (result instanceof Set) {
@@ -211,7 +232,8 @@ public class ResultProcessor extends ProgramAnalysis {
         return toString(stmt) + " " + toString(result.getResult(stmt));
     }
 
-    private void compareResult(JMethod method, String id,
+    private void compareResult(Collection<String> mismatches,
+                               JMethod method, String id,
                                BiFunction<JMethod, String, ?> resultGetter) {
         Set<String> inputResult = inputs.get(new Pair<>(method.toString(), id));
         Object result = resultGetter.apply(method, id);
@@ -24,28 +24,63 @@ package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.dataflow.solver.Solver;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 
+import java.util.Collection;
+
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
 
     private final Solver<Node, Fact> solver;
 
+    /**
+     * Whether to keep only the input facts of solved results,
+     * see {@link IndexedDataflowResult#retainInputFacts()}.
+     */
+    private final boolean retainInputFacts;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
         solver = Solver.makeSolver(this);
+        retainInputFacts = getOptions().getBooleanOrDefault(
+                "retain-input-facts", false);
+        if (retainInputFacts &&
+                !getOptions().getBooleanOrDefault("indexed-result", false)) {
+            // only IndexedDataflowResult can drop facts
+            throw new ConfigException("Option retain-input-facts of " +
+                    getId() + " requires option indexed-result");
+        }
     }
 
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
-        return solver.solve(cfg);
+        DataflowResult<Node, Fact> result = solver.solve(cfg);
+        if (retainInputFacts && result instanceof IndexedDataflowResult<?> indexed) {
+            indexed.retainInputFacts();
+        }
+        return result;
+    }
+
+    /**
+     * Updates the result of given IR, which has been computed by
+     * {@link #analyze(IR)}, after given nodes of its CFG have been edited
+     * without changing the structure of the CFG.
+     *
+     * @see Solver#update(CFG, DataflowResult, Collection)
+     */
+    public void update(IR ir, DataflowResult<Node, Fact> result,
+                       Collection<Node> changed) {
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        solver.update(cfg, result, changed);
     }
 
     /**
@@ -22,9 +22,13 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.MapDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.Edge;
 
+import java.util.Collection;
+
 /**
  * Template interface for defining data-flow analysis.
  *
@@ -49,6 +53,33 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * Analyses whose facts depend on the method being analyzed, e.g.,
+     * facts indexed by the variables of the method, override this method.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
+    /**
+     * @return new empty result for the facts of given CFG.
+     * Analyses on statements may override this method to return
+     * a more compact result than {@link MapDataflowResult}.
+     */
+    default DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        return new MapDataflowResult<>();
+    }
+
+    /**
+     * Notifies this analysis that given nodes of the CFG have been edited,
+     * before a solver updates a result for the edits, so that the analysis
+     * can discard the information it has derived from the old nodes.
+     * By default, this method does nothing.
+     */
+    default void nodesChanged(CFG<Node> cfg, Collection<Node> nodes) {
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
@@ -64,6 +95,20 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     boolean transferNode(Node node, Fact in, Fact out);
 
+    /**
+     * Forward analyses that can decide branch conditions override this
+     * method, so that facts are only propagated along edges that control
+     * may actually take. The solver records the executable edges in the
+     * {@link pascal.taie.analysis.dataflow.fact.DataflowResult}.
+     *
+     * @param edge     an out edge of a node that has been reached
+     * @param nodeFact the flowing-out fact of the source node of the edge
+     * @return true if control may flow along the edge, otherwise false.
+     */
+    default boolean isExecutable(Edge<Node> edge, Fact nodeFact) {
+        return true;
+    }
+
     /**
      * @return true if this analysis needs to perform transfer for given edge, otherwise false.
      */
@@ -25,7 +25,6 @@ package pascal.taie.analysis.dataflow.analysis;
 import pascal.taie.analysis.MethodAnalysis;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
-import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
@@ -35,9 +34,7 @@ import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.AssignStmt;
-import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
-import pascal.taie.ir.stmt.SwitchStmt;
 
 import java.util.*;
 
@@ -63,6 +60,8 @@ public class DeadCodeDetection extends MethodAnalysis {
         Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
         // TODO - finish me
         // Your task is to recognize dead code in ir and add it to deadCode
+        // constant propagation has recorded the edges that control may
+        // take, so the reachable statements are those reached by them
         Set<Stmt> reachable = new HashSet<>();
         Deque<Stmt> stmts = new ArrayDeque<>();
 
@@ -70,7 +69,6 @@ public class DeadCodeDetection extends MethodAnalysis {
         stmts.add(cfg.getEntry());
         while (!stmts.isEmpty()) {
             Stmt stmt = stmts.poll();
-            reachable.add(stmt);
             if (stmt instanceof AssignStmt assignStmt) {
                 SetFact<Var> liveVarsResult = liveVars.getResult(assignStmt);
                 LValue lhs = assignStmt.getLValue();
@@ -79,41 +77,12 @@ public class DeadCodeDetection extends MethodAnalysis {
                     deadCode.add(stmt);
                 }
             }
-            if (stmt instanceof If ifStmt) {
-                CPFact fact = constants.getOutFact(stmt);
-                Value value = ConstantPropagation.evaluate(ifStmt.getCondition(), fact);
-                if (value.isConstant()) {
-                    Edge.Kind kind = value.getConstant() == 1 ? Edge.Kind.IF_TRUE : Edge.Kind.IF_FALSE;
-                    cfg.getOutEdgesOf(ifStmt).stream()
-                            .filter(edge -> edge.getKind() == kind)
-                            .map(Edge::getTarget)
-                            .forEach(stmts::add);
-                    continue;
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                if (constants.isExecutable(edge) &&
+                        reachable.add(edge.getTarget())) {
+                    stmts.add(edge.getTarget());
                 }
             }
-            if (stmt instanceof SwitchStmt switchStmt) {
-                Var var = switchStmt.getVar();
-                CPFact result = constants.getResult(switchStmt);
-                if (result.get(var).isConstant()) {
-                    int value = result.get(var).getConstant();
-                    boolean matched = cfg.getOutEdgesOf(switchStmt).stream()
-                            .filter(edge -> edge.getKind() == Edge.Kind.SWITCH_CASE && edge.getCaseValue() == value)
-                            .map(Edge::getTarget)
-                            .peek(stmts::add)
-                            .findAny()
-                            .isPresent();
-                    if (!matched) {
-                        cfg.getOutEdgesOf(switchStmt).stream()
-                                .filter(edge -> edge.getKind() == Edge.Kind.SWITCH_DEFAULT)
-                                .map(Edge::getTarget)
-                                .forEach(stmts::add);
-                    }
-                    continue;
-                }
-            }
-            cfg.getSuccsOf(stmt).stream()
-                    .filter(succ -> !reachable.contains(succ))
-                    .forEach(stmts::add);
         }
         ir.getStmts().stream()
                 .filter(stmt -> !reachable.contains(stmt))
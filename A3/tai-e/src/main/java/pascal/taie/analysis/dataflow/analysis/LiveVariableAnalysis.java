@@ -22,23 +22,56 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.DataflowResultCache;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.fact.MapDataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.LValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Implementation of classic live variable analysis.
  */
 public class LiveVariableAnalysis extends
-        AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+        AbstractDataflowAnalysis<Stmt, SetFact<Var>>
+        implements FactCodec<SetFact<Var>> {
 
     public static final String ID = "livevar";
 
+    /**
+     * Whether to keep results in arrays indexed by the statements.
+     */
+    private final boolean indexedResult;
+
+    /**
+     * On-disk cache of the results, or null if caching is disabled.
+     */
+    private final DataflowResultCache<SetFact<Var>> cache;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        indexedResult = getOptions().getBooleanOrDefault("indexed-result", false);
+        cache = DataflowResultCache.make(this, this);
+    }
+
+    @Override
+    public DataflowResult<Stmt, SetFact<Var>> analyze(IR ir) {
+        if (cache == null) {
+            return super.analyze(ir);
+        }
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        return cache.getOrSolve(cfg, this::newResult, () -> super.analyze(ir));
     }
 
     @Override
@@ -58,6 +91,12 @@ public class LiveVariableAnalysis extends
         return new SetFact<>();
     }
 
+    @Override
+    public DataflowResult<Stmt, SetFact<Var>> newResult(CFG<Stmt> cfg) {
+        return indexedResult ? new IndexedDataflowResult<>(cfg, this)
+                : new MapDataflowResult<>();
+    }
+
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
         // TODO - finish me
@@ -84,4 +123,21 @@ public class LiveVariableAnalysis extends
         return changed;
 
     }
+
+    @Override
+    public void writeFact(DataOutput out, SetFact<Var> fact) throws IOException {
+        out.writeInt(fact.size());
+        for (Var var : fact.stream().toList()) {
+            out.writeInt(var.getIndex());
+        }
+    }
+
+    @Override
+    public SetFact<Var> readFact(DataInput in, CFG<Stmt> cfg) throws IOException {
+        SetFact<Var> fact = newInitialFact();
+        for (int i = in.readInt(); i > 0; --i) {
+            fact.add(cfg.getIR().getVar(in.readInt()));
+        }
+        return fact;
+    }
 }
@@ -48,6 +48,14 @@ public class CPFact extends MapFact<Var, Value> {
         super(map);
     }
 
+    /**
+     * Constructor for {@link IndexedCPFact}, which keeps its mappings
+     * by itself instead of in {@link #map}.
+     */
+    CPFact(Void noStorage) {
+        super(noStorage);
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
@@ -69,6 +77,27 @@ public class CPFact extends MapFact<Var, Value> {
         }
     }
 
+    /**
+     * Copies the content from given fact to this fact, except that
+     * the value of given key is taken as {@code value}. This is equivalent
+     * to updating a copy of given fact and then copying from the copy,
+     * but does not create the intermediate copy.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFromWith(CPFact fact, Var key, Value value) {
+        boolean changed = false;
+        for (Map.Entry<Var, Value> entry : fact.mappings()) {
+            if (!entry.getKey().equals(key)) {
+                changed |= update(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!value.isUndef()) {
+            changed |= update(key, value);
+        }
+        return changed;
+    }
+
     @Override
     public CPFact copy() {
         return new CPFact(this.map);
@@ -23,23 +23,94 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.DataflowResultCache;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.fact.MapDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
 import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
 public class ConstantPropagation extends
-        AbstractDataflowAnalysis<Stmt, CPFact> {
+        AbstractDataflowAnalysis<Stmt, CPFact>
+        implements FactCodec<CPFact> {
 
     public static final String ID = "constprop";
 
+    /**
+     * Whether to represent facts as dense arrays over the variables
+     * of the analyzed method.
+     */
+    private final boolean indexedFact;
+
+    /**
+     * Whether to solve with {@link SparseConstantPropagation}.
+     */
+    private final boolean sparse;
+
+    /**
+     * Whether to keep results in arrays indexed by the statements.
+     */
+    private final boolean indexedResult;
+
+    /**
+     * On-disk cache of the results, or null if caching is disabled.
+     */
+    private final DataflowResultCache<CPFact> cache;
+
     public ConstantPropagation(AnalysisConfig config) {
         super(config);
+        indexedFact = getOptions().getBooleanOrDefault("indexed-fact", false);
+        sparse = getOptions().getBooleanOrDefault("sparse", false);
+        indexedResult = getOptions().getBooleanOrDefault("indexed-result", false);
+        cache = DataflowResultCache.make(this, this);
+    }
+
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        if (cache != null) {
+            return cache.getOrSolve(cfg, this::newResult, () -> solve(ir, cfg));
+        }
+        return solve(ir, cfg);
+    }
+
+    /**
+     * Results of {@link SparseConstantPropagation} are derived from
+     * def-use chains, and thus cannot be updated by the solver.
+     */
+    @Override
+    public void update(IR ir, DataflowResult<Stmt, CPFact> result,
+                       Collection<Stmt> changed) {
+        if (sparse) {
+            throw new UnsupportedOperationException(
+                    "Option sparse of " + ID + " does not support update");
+        }
+        super.update(ir, result, changed);
+    }
+
+    private DataflowResult<Stmt, CPFact> solve(IR ir, CFG<Stmt> cfg) {
+        if (sparse) {
+            return new SparseConstantPropagation(this, cfg).solve();
+        }
+        return super.analyze(ir);
     }
 
     @Override
@@ -50,7 +121,7 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
-        CPFact fact = new CPFact();
+        CPFact fact = newInitialFact(cfg);
         for (Var var : cfg.getIR().getParams()) {
             if(ConstantPropagation.canHoldInt(var)) {
                 fact.update(var, Value.getNAC());
@@ -65,14 +136,59 @@ public class ConstantPropagation extends
         return new CPFact();
     }
 
+    @Override
+    public CPFact newInitialFact(CFG<Stmt> cfg) {
+        return indexedFact ? new IndexedCPFact(cfg.getIR().getVars())
+                : newInitialFact();
+    }
+
+    @Override
+    public DataflowResult<Stmt, CPFact> newResult(CFG<Stmt> cfg) {
+        return indexedResult ? new IndexedDataflowResult<>(cfg, this)
+                : new MapDataflowResult<>();
+    }
+
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         // TODO - finish me
+        if (target instanceof IndexedCPFact indexed) {
+            indexed.meet(fact);
+            return;
+        }
         for(Var var: fact.keySet()) {
             target.update(var, meetValue(fact.get(var), target.get(var)));
         }
     }
 
+    /**
+     * An IF edge is executable unless the condition evaluates to the
+     * constant selecting the other branch, and a SWITCH edge is executable
+     * unless the switch variable is a constant matched by another edge.
+     * Undefined conditions are conservatively treated like NAC.
+     */
+    @Override
+    public boolean isExecutable(Edge<Stmt> edge, CPFact nodeFact) {
+        Stmt source = edge.getSource();
+        if (source instanceof If ifStmt && (edge.getKind() == Edge.Kind.IF_TRUE ||
+                edge.getKind() == Edge.Kind.IF_FALSE)) {
+            Value cond = evaluate(ifStmt.getCondition(), nodeFact);
+            if (cond.isConstant()) {
+                return edge.getKind() == (cond.getConstant() == 1 ?
+                        Edge.Kind.IF_TRUE : Edge.Kind.IF_FALSE);
+            }
+        } else if (source instanceof SwitchStmt switchStmt &&
+                (edge.isSwitchCase() || edge.getKind() == Edge.Kind.SWITCH_DEFAULT)) {
+            Value value = nodeFact.get(switchStmt.getVar());
+            if (value.isConstant()) {
+                int c = value.getConstant();
+                return switchStmt.getCaseValues().contains(c) ?
+                        edge.isSwitchCase() && edge.getCaseValue() == c :
+                        edge.getKind() == Edge.Kind.SWITCH_DEFAULT;
+            }
+        }
+        return true;
+    }
+
     /**
      * Meets two Values.
      */
@@ -100,15 +216,39 @@ public class ConstantPropagation extends
             if ((stmt.getDef().get() instanceof Var lvalue)){
                 if(ConstantPropagation.canHoldInt(lvalue)) {
                     RValue rvalue = ((DefinitionStmt<Var, RValue>)stmt).getRValue();
-                    CPFact Newin = in.copy();
-                    Newin.update(lvalue, evaluate(rvalue, in));
-                    return out.copyFrom(Newin);
+                    return out.copyFromWith(in, lvalue, evaluate(rvalue, in));
                 }
             }
         }
         return out.copyFrom(in);
     }
 
+    @Override
+    public void writeFact(DataOutput out, CPFact fact) throws IOException {
+        List<Var> vars = List.copyOf(fact.keySet());
+        out.writeInt(vars.size());
+        for (Var var : vars) {
+            Value value = fact.get(var);
+            out.writeInt(var.getIndex());
+            out.writeBoolean(value.isConstant());
+            // UNDEF is never stored in facts, so the rest is NAC
+            if (value.isConstant()) {
+                out.writeInt(value.getConstant());
+            }
+        }
+    }
+
+    @Override
+    public CPFact readFact(DataInput in, CFG<Stmt> cfg) throws IOException {
+        CPFact fact = newInitialFact(cfg);
+        for (int i = in.readInt(); i > 0; --i) {
+            Var var = cfg.getIR().getVar(in.readInt());
+            fact.update(var, in.readBoolean() ?
+                    Value.makeConstant(in.readInt()) : Value.getNAC());
+        }
+        return fact;
+    }
+
     /**
      * @return true if the given variable can hold integer value, otherwise false.
      */
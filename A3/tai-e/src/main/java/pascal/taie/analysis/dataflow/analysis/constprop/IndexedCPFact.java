@@ -0,0 +1,282 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link CPFact} stored as a dense array indexed by {@link Var#getIndex()}.
+ * All facts of a method share the variables of the method
+ * (i.e., {@link pascal.taie.ir.IR#getVars()}) as their universe, and each
+ * lattice value is encoded in a long, so that no {@link Value} objects are
+ * kept in the fact:
+ * <ul>
+ *     <li>UNDEF is 0, so that a fresh fact maps every variable to UNDEF</li>
+ *     <li>a constant c is {@link #CONSTANT_TAG} | (c &amp; 0xffffffffL)</li>
+ *     <li>NAC is {@link #NAC}</li>
+ * </ul>
+ * Meet, copy and equality of facts over the same universe are plain loops
+ * over the arrays.
+ */
+public class IndexedCPFact extends CPFact {
+
+    private static final long UNDEF = 0L;
+
+    private static final long CONSTANT_TAG = 1L << 32;
+
+    private static final long NAC = 2L << 32;
+
+    /**
+     * Universe of variables, where each variable is located at its index.
+     */
+    private final List<Var> vars;
+
+    private final long[] values;
+
+    /**
+     * Creates a fact which maps every variable in given universe to UNDEF.
+     *
+     * @param vars a list that contains every variable at the position
+     *             of its index, i.e., {@link pascal.taie.ir.IR#getVars()}.
+     */
+    public IndexedCPFact(List<Var> vars) {
+        super((Void) null);
+        this.vars = vars;
+        this.values = new long[vars.size()];
+    }
+
+    private IndexedCPFact(IndexedCPFact other) {
+        super((Void) null);
+        this.vars = other.vars;
+        this.values = other.values.clone();
+    }
+
+    private static long encode(Value value) {
+        if (value.isUndef()) {
+            return UNDEF;
+        } else if (value.isNAC()) {
+            return NAC;
+        } else {
+            return CONSTANT_TAG | (value.getConstant() & 0xffffffffL);
+        }
+    }
+
+    private static Value decode(long value) {
+        if (value == UNDEF) {
+            return Value.getUndef();
+        } else if (value == NAC) {
+            return Value.getNAC();
+        } else {
+            return Value.makeConstant((int) value);
+        }
+    }
+
+    /**
+     * Meets two encoded values, in the same way as
+     * {@link ConstantPropagation#meetValue(Value, Value)}.
+     */
+    private static long meet(long v1, long v2) {
+        if (v1 == v2 || v2 == UNDEF) {
+            return v1;
+        } else if (v1 == UNDEF) {
+            return v2;
+        } else {
+            return NAC;
+        }
+    }
+
+    /**
+     * @return true if other fact is an indexed fact over the same
+     * universe as this fact, so that array-wise operations apply.
+     */
+    private boolean isCompatible(MapFact<Var, Value> other) {
+        return other instanceof IndexedCPFact that && this.vars == that.vars;
+    }
+
+    @Override
+    public Value get(Var key) {
+        return decode(values[key.getIndex()]);
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        int i = key.getIndex();
+        long old = values[i];
+        values[i] = encode(value);
+        return values[i] != old;
+    }
+
+    @Override
+    public Value remove(Var key) {
+        int i = key.getIndex();
+        long old = values[i];
+        values[i] = UNDEF;
+        return old == UNDEF ? null : decode(old);
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (!isCompatible(fact)) {
+            return super.copyFrom(fact);
+        }
+        long[] from = ((IndexedCPFact) fact).values;
+        boolean changed = false;
+        for (int i = 0; i < values.length; ++i) {
+            long v = from[i];
+            if (v != UNDEF && v != values[i]) {
+                values[i] = v;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean copyFromWith(CPFact fact, Var key, Value value) {
+        if (!isCompatible(fact)) {
+            return super.copyFromWith(fact, key, value);
+        }
+        long[] from = ((IndexedCPFact) fact).values;
+        int k = key.getIndex();
+        boolean changed = false;
+        for (int i = 0; i < values.length; ++i) {
+            long v = i == k ? encode(value) : from[i];
+            if (v != UNDEF && v != values[i]) {
+                values[i] = v;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Meets given fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean meet(CPFact fact) {
+        boolean changed = false;
+        if (isCompatible(fact)) {
+            long[] from = ((IndexedCPFact) fact).values;
+            for (int i = 0; i < values.length; ++i) {
+                long v = meet(from[i], values[i]);
+                if (v != values[i]) {
+                    values[i] = v;
+                    changed = true;
+                }
+            }
+        } else {
+            for (Var var : fact.keySet()) {
+                int i = var.getIndex();
+                long v = meet(encode(fact.get(var)), values[i]);
+                if (v != values[i]) {
+                    values[i] = v;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public IndexedCPFact copy() {
+        return new IndexedCPFact(this);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, UNDEF);
+    }
+
+    /**
+     * @return the variables that are not UNDEF in this fact. Unlike
+     * {@link MapFact#keySet()}, the returned set is a snapshot of this fact.
+     */
+    @Override
+    public Set<Var> keySet() {
+        return definedIndexes()
+                .mapToObj(vars::get)
+                .collect(Collectors.toCollection(Sets::newHybridSet));
+    }
+
+    @Override
+    public Stream<Map.Entry<Var, Value>> entries() {
+        return definedIndexes()
+                .mapToObj(i -> Map.entry(vars.get(i), decode(values[i])));
+    }
+
+    @Override
+    protected Iterable<Map.Entry<Var, Value>> mappings() {
+        return entries()::iterator;
+    }
+
+    @Override
+    public void forEach(BiConsumer<Var, Value> action) {
+        for (int i = 0; i < values.length; ++i) {
+            if (values[i] != UNDEF) {
+                action.accept(vars.get(i), decode(values[i]));
+            }
+        }
+    }
+
+    private IntStream definedIndexes() {
+        return IntStream.range(0, values.length)
+                .filter(i -> values[i] != UNDEF);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IndexedCPFact that)) {
+            return false;
+        }
+        return vars == that.vars && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "{" + entries()
+                .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")) + "}";
+    }
+}
@@ -0,0 +1,405 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse conditional constant propagation over def-use chains.
+ * <p>
+ * Instead of carrying a {@link CPFact} for every statement, this solver
+ * keeps one {@link Value} per definition, and propagates values from
+ * definitions to their uses along def-use chains. A statement is only
+ * evaluated after it has been reached by a CFG edge proven executable,
+ * and the out edges of {@link If} and {@link SwitchStmt} are only made
+ * executable when their conditions allow it. Like
+ * {@link ConstantPropagation#isExecutable}, undefined conditions are
+ * treated like NAC, as they may depend on variables that cannot hold
+ * integers. Definitions that have not been proven executable do not
+ * contribute to the values of their uses.
+ * <p>
+ * As the IR is not in SSA form, a use may be reached by several
+ * definitions of the same variable (the parameters are defined
+ * at the entry of the CFG); its value is the meet of the values of
+ * the executable ones. The reaching definitions are computed once for
+ * the whole method, by a bit-vector data-flow pass over the numbered
+ * definitions, and the chains are derived from them. The result keeps
+ * only these bits besides the def values, and computes the facts of
+ * a statement when they are queried.
+ */
+public class SparseConstantPropagation {
+
+    private final ConstantPropagation analysis;
+
+    private final CFG<Stmt> cfg;
+
+    private final IR ir;
+
+    /**
+     * Value of the variable defined by each statement, indexed by
+     * {@link Stmt#getIndex()}. Entries of non-definitions stay null.
+     */
+    private final Value[] defValues;
+
+    /**
+     * Executable statements, indexed by {@link Stmt#getIndex()}.
+     */
+    private final BitSet executable = new BitSet();
+
+    private final Set<Edge<Stmt>> executableEdges = Sets.newSet();
+
+    /**
+     * Statements of the numbered definitions of the variables that can
+     * hold integers. The parameters are defined by the entry node.
+     */
+    private final List<Stmt> defStmts = new ArrayList<>();
+
+    /**
+     * Variables of the numbered definitions.
+     */
+    private final List<Var> defVars = new ArrayList<>();
+
+    /**
+     * Numbers of the definitions of each variable.
+     */
+    private final Map<Var, BitSet> varDefs = Maps.newMap();
+
+    /**
+     * Numbers of the definitions that reach the program point right before
+     * each statement, indexed by {@link Stmt#getIndex()}.
+     */
+    private BitSet[] reachingDefs;
+
+    /**
+     * Def-use chains: definition -> statements using the defined variable.
+     */
+    private final MultiMap<Stmt, Stmt> defUses = Maps.newMultiMap();
+
+    private final Deque<Edge<Stmt>> flowWorkList = new ArrayDeque<>();
+
+    private final Deque<Stmt> useWorkList = new ArrayDeque<>();
+
+    public SparseConstantPropagation(ConstantPropagation analysis, CFG<Stmt> cfg) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+        this.ir = cfg.getIR();
+        // index of exit node is the largest one in the CFG
+        this.defValues = new Value[cfg.getExit().getIndex() + 1];
+    }
+
+    /**
+     * Solves constant propagation for the CFG of this solver.
+     *
+     * @return a result which computes per-statement facts on demand,
+     * and records the CFG edges proven executable.
+     */
+    public DataflowResult<Stmt, CPFact> solve() {
+        numberDefs();
+        computeReachingDefs();
+        buildChains();
+        Stmt entry = cfg.getEntry();
+        executable.set(entry.getIndex());
+        flowWorkList.addAll(cfg.getOutEdgesOf(entry));
+        while (!flowWorkList.isEmpty() || !useWorkList.isEmpty()) {
+            while (!flowWorkList.isEmpty()) {
+                Edge<Stmt> edge = flowWorkList.poll();
+                if (executableEdges.add(edge)) {
+                    Stmt target = edge.getTarget();
+                    if (!executable.get(target.getIndex())) {
+                        executable.set(target.getIndex());
+                        visit(target);
+                    }
+                }
+            }
+            while (!useWorkList.isEmpty()) {
+                Stmt stmt = useWorkList.poll();
+                if (executable.get(stmt.getIndex())) {
+                    visit(stmt);
+                }
+            }
+        }
+        Result result = new Result();
+        executableEdges.forEach(result::setExecutable);
+        return result;
+    }
+
+    /**
+     * Numbers the definitions of the variables that can hold integers.
+     */
+    private void numberDefs() {
+        for (Stmt stmt : cfg) {
+            if (cfg.isEntry(stmt)) {
+                for (Var param : ir.getParams()) {
+                    if (ConstantPropagation.canHoldInt(param)) {
+                        addDef(stmt, param);
+                    }
+                }
+            } else if (stmt.getDef().orElse(null) instanceof Var var &&
+                    ConstantPropagation.canHoldInt(var)) {
+                addDef(stmt, var);
+            }
+        }
+    }
+
+    private void addDef(Stmt stmt, Var var) {
+        varDefs.computeIfAbsent(var, v -> new BitSet()).set(defStmts.size());
+        defStmts.add(stmt);
+        defVars.add(var);
+    }
+
+    /**
+     * Computes the reaching definitions of all statements by a single
+     * work-list pass of the bit-vector gen/kill analysis.
+     */
+    private void computeReachingDefs() {
+        reachingDefs = new BitSet[defValues.length];
+        BitSet[] outDefs = new BitSet[defValues.length];
+        // generated definitions of each statement, indexed by Stmt#getIndex()
+        BitSet[] genDefs = new BitSet[defValues.length];
+        Deque<Stmt> workList = new ArrayDeque<>();
+        BitSet inWorkList = new BitSet(defValues.length);
+        for (Stmt node : cfg) {
+            reachingDefs[node.getIndex()] = new BitSet();
+            outDefs[node.getIndex()] = new BitSet();
+            workList.add(node);
+            inWorkList.set(node.getIndex());
+        }
+        for (int d = 0; d < defStmts.size(); ++d) {
+            int i = defStmts.get(d).getIndex();
+            if (genDefs[i] == null) {
+                genDefs[i] = new BitSet();
+            }
+            genDefs[i].set(d);
+        }
+        BitSet out = new BitSet();
+        while (!workList.isEmpty()) {
+            Stmt node = workList.poll();
+            int i = node.getIndex();
+            inWorkList.clear(i);
+            BitSet in = reachingDefs[i];
+            for (Stmt pred : cfg.getPredsOf(node)) {
+                in.or(outDefs[pred.getIndex()]);
+            }
+            out.clear();
+            out.or(in);
+            if (genDefs[i] != null) {
+                if (!cfg.isEntry(node)) {
+                    // the statement defines one variable,
+                    // and kills the other definitions of the variable
+                    out.andNot(varDefs.get(defVars.get(genDefs[i].nextSetBit(0))));
+                }
+                out.or(genDefs[i]);
+            }
+            if (!out.equals(outDefs[i])) {
+                outDefs[i].clear();
+                outDefs[i].or(out);
+                for (Stmt succ : cfg.getSuccsOf(node)) {
+                    if (!inWorkList.get(succ.getIndex())) {
+                        inWorkList.set(succ.getIndex());
+                        workList.add(succ);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds def-use chains for the variables that can hold integers
+     * from the reaching definitions of the uses.
+     */
+    private void buildChains() {
+        for (Stmt stmt : cfg) {
+            BitSet reaching = reachingDefs[stmt.getIndex()];
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var var && ConstantPropagation.canHoldInt(var)) {
+                    BitSet defs = varDefs.get(var);
+                    if (defs != null) {
+                        for (int d = defs.nextSetBit(0); d >= 0; d = defs.nextSetBit(d + 1)) {
+                            if (reaching.get(d)) {
+                                defUses.put(defStmts.get(d), stmt);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the value defined by definition {@code d}.
+     */
+    private Value defValue(int d) {
+        Stmt def = defStmts.get(d);
+        if (cfg.isEntry(def)) {
+            // parameters are not constants
+            return Value.getNAC();
+        }
+        Value value = defValues[def.getIndex()];
+        return value != null ? value : Value.getUndef();
+    }
+
+    /**
+     * @return meet of the values of the executable definitions of
+     * {@code var} that reach {@code stmt}.
+     */
+    private Value meetDefs(Stmt stmt, Var var) {
+        Value value = Value.getUndef();
+        BitSet defs = varDefs.get(var);
+        if (defs != null) {
+            BitSet reaching = reachingDefs[stmt.getIndex()];
+            for (int d = defs.nextSetBit(0); d >= 0; d = defs.nextSetBit(d + 1)) {
+                if (reaching.get(d) && executable.get(defStmts.get(d).getIndex())) {
+                    value = analysis.meetValue(value, defValue(d));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @return a fact holding the values of the variables used by {@code stmt}.
+     */
+    private CPFact useFact(Stmt stmt) {
+        CPFact fact = new CPFact();
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var var && ConstantPropagation.canHoldInt(var)) {
+                fact.update(var, meetDefs(stmt, var));
+            }
+        }
+        return fact;
+    }
+
+    private void visit(Stmt stmt) {
+        if (stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var var &&
+                ConstantPropagation.canHoldInt(var)) {
+            int i = stmt.getIndex();
+            Value old = defValues[i] != null ? defValues[i] : Value.getUndef();
+            Value value = analysis.meetValue(old,
+                    ConstantPropagation.evaluate(def.getRValue(), useFact(stmt)));
+            if (!value.equals(old)) {
+                defValues[i] = value;
+                useWorkList.addAll(defUses.get(stmt));
+            }
+        }
+        if (stmt instanceof If ifStmt) {
+            Value cond = ConstantPropagation.evaluate(
+                    ifStmt.getCondition(), useFact(stmt));
+            if (cond.isConstant()) {
+                Edge.Kind kind = cond.getConstant() == 1 ?
+                        Edge.Kind.IF_TRUE : Edge.Kind.IF_FALSE;
+                cfg.getOutEdgesOf(stmt).forEach(edge -> {
+                    if (edge.getKind() == kind) {
+                        flowWorkList.add(edge);
+                    }
+                });
+            } else {
+                flowWorkList.addAll(cfg.getOutEdgesOf(stmt));
+            }
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            Value value = useFact(stmt).get(switchStmt.getVar());
+            if (value.isConstant()) {
+                int c = value.getConstant();
+                boolean matched = switchStmt.getCaseValues().contains(c);
+                cfg.getOutEdgesOf(stmt).forEach(edge -> {
+                    if (matched ? edge.isSwitchCase() && edge.getCaseValue() == c
+                            : edge.getKind() == Edge.Kind.SWITCH_DEFAULT) {
+                        flowWorkList.add(edge);
+                    }
+                });
+            } else {
+                flowWorkList.addAll(cfg.getOutEdgesOf(stmt));
+            }
+        } else {
+            flowWorkList.addAll(cfg.getOutEdgesOf(stmt));
+        }
+    }
+
+    /**
+     * View of the solved def values as per-statement facts. The IN fact of
+     * a variable at a statement is the meet of the values of its executable
+     * reaching definitions, which is computed from the reaching definitions
+     * of the statement when the fact is queried; statements that are not
+     * executable have empty facts.
+     */
+    private class Result extends DataflowResult<Stmt, CPFact> {
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            CPFact fact = new CPFact();
+            if (executable.get(stmt.getIndex())) {
+                BitSet reaching = reachingDefs[stmt.getIndex()];
+                for (int d = reaching.nextSetBit(0); d >= 0;
+                     d = reaching.nextSetBit(d + 1)) {
+                    if (executable.get(defStmts.get(d).getIndex())) {
+                        Var var = defVars.get(d);
+                        fact.update(var, analysis.meetValue(fact.get(var), defValue(d)));
+                    }
+                }
+            }
+            return fact;
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            CPFact fact = getInFact(stmt);
+            if (executable.get(stmt.getIndex()) &&
+                    stmt.getDef().orElse(null) instanceof Var var &&
+                    ConstantPropagation.canHoldInt(var)) {
+                fact.update(var, defValues[stmt.getIndex()] != null ?
+                        defValues[stmt.getIndex()] : Value.getUndef());
+            }
+            return fact;
+        }
+
+        @Override
+        public void setInFact(Stmt stmt, CPFact fact) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setOutFact(Stmt stmt, CPFact fact) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -22,48 +22,86 @@
 
 package pascal.taie.analysis.dataflow.fact;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * An object which manages the data-flow facts associated with nodes.
+ * <p>
+ * Subclasses decide how the facts are stored, e.g., {@link MapDataflowResult}
+ * keeps them in maps and {@link IndexedDataflowResult} in arrays. The set of
+ * executable edges is only created when the first edge is marked, so that
+ * results of backward analyses do not keep it.
  *
  * @param <Node> type of nodes
  * @param <Fact> type of data-flow facts
  */
-public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
-
-    private final Map<Node, Fact> inFacts = new LinkedHashMap<>();
+public abstract class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
-    private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
+    private Set<Edge<Node>> executableEdges;
 
     /**
      * @return the flowing-in fact of given node.
      */
     @Override
-    public Fact getInFact(Node node) {
-        return inFacts.get(node);
-    }
+    public abstract Fact getInFact(Node node);
 
     /**
      * Associates a data-flow fact with a node as its flowing-in fact.
      */
-    public void setInFact(Node node, Fact fact) {
-        inFacts.put(node, fact);
-    }
+    public abstract void setInFact(Node node, Fact fact);
 
     /**
      * @return the flowing-out fact of given node.
      */
     @Override
-    public Fact getOutFact(Node node) {
-        return outFacts.get(node);
-    }
+    public abstract Fact getOutFact(Node node);
 
     /**
      * Associates a data-flow fact with a node as its flowing-out fact.
      */
-    public void setOutFact(Node node, Fact fact) {
-        outFacts.put(node, fact);
+    public abstract void setOutFact(Node node, Fact fact);
+
+    /**
+     * @return true if control may flow along given edge. Only meaningful
+     * for results of forward analyses, whose solver records the edges that
+     * are executable according to {@link
+     * pascal.taie.analysis.dataflow.analysis.DataflowAnalysis#isExecutable}.
+     */
+    public boolean isExecutable(Edge<Node> edge) {
+        return executableEdges != null && executableEdges.contains(edge);
+    }
+
+    /**
+     * Marks given edge as executable.
+     *
+     * @return true if the edge was not marked before, otherwise false.
+     */
+    public boolean setExecutable(Edge<Node> edge) {
+        if (executableEdges == null) {
+            executableEdges = Sets.newSet();
+        }
+        return executableEdges.add(edge);
+    }
+
+    /**
+     * Unmarks given edge as executable, so that it can be decided again
+     * when the result is updated.
+     */
+    public void clearExecutable(Edge<Node> edge) {
+        if (executableEdges != null) {
+            executableEdges.remove(edge);
+        }
+    }
+
+    /**
+     * @return the edges that have been marked as executable.
+     */
+    public Set<Edge<Node>> getExecutableEdges() {
+        return executableEdges == null ? Set.of()
+                : Collections.unmodifiableSet(executableEdges);
     }
 }
@@ -0,0 +1,292 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.Analysis;
+import pascal.taie.analysis.exception.ThrowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * On-disk cache of the data-flow results of methods. Each method has one
+ * file, named by the hash of its signature, under a directory of the
+ * analysis. The file starts with a fingerprint of the method's IR and CFG
+ * and of the options of the analysis and of the CFG builder, and a result
+ * is reused only if all of them still match, so that changed methods
+ * (or the methods whose CFGs have different exceptional edges)
+ * are solved again.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public class DataflowResultCache<Fact> {
+
+    private static final Logger logger = LogManager.getLogger(DataflowResultCache.class);
+
+    /**
+     * Option giving the directory of the cache.
+     */
+    public static final String CACHE_DIR = "cache-dir";
+
+    private static final int MAGIC = 0x7461_6463; // "tadc"
+
+    private static final int VERSION = 1;
+
+    private static final Edge.Kind[] KINDS = Edge.Kind.values();
+
+    private final Path dir;
+
+    private final String options;
+
+    private final FactCodec<Fact> codec;
+
+    private DataflowResultCache(Path dir, String options, FactCodec<Fact> codec) {
+        this.dir = dir;
+        this.options = options;
+        this.codec = codec;
+    }
+
+    /**
+     * @return the cache for given analysis, or null if option
+     * {@value CACHE_DIR} is not given.
+     */
+    public static <Fact> DataflowResultCache<Fact> make(
+            Analysis analysis, FactCodec<Fact> codec) {
+        String dir = analysis.getOptions().getString(CACHE_DIR);
+        return dir == null ? null : new DataflowResultCache<>(
+                Path.of(dir, analysis.getId()), getOptions(analysis), codec);
+    }
+
+    /**
+     * @return the options which the results of given analysis depend on,
+     * i.e., the options of the analysis, and the options given to
+     * the CFG builder and the throw analysis which it requires.
+     */
+    private static String getOptions(Analysis analysis) {
+        Map<String, String> analyses = World.get().getOptions().getAnalyses();
+        return analysis.getOptions() + "\n" +
+                CFGBuilder.ID + "=" + analyses.get(CFGBuilder.ID) + "\n" +
+                ThrowAnalysis.ID + "=" + analyses.get(ThrowAnalysis.ID);
+    }
+
+    /**
+     * @param resultFactory makes the result which a cached result is
+     *                      loaded into, and should be the one which
+     *                      {@code solver} makes its result with, so that
+     *                      the loaded result has the same representation
+     *                      as a freshly solved one.
+     * @return the cached result for the method of given CFG if it is
+     * still valid, otherwise the result computed by {@code solver},
+     * which is also stored into the cache.
+     */
+    public DataflowResult<Stmt, Fact> getOrSolve(
+            CFG<Stmt> cfg,
+            Function<CFG<Stmt>, DataflowResult<Stmt, Fact>> resultFactory,
+            Supplier<DataflowResult<Stmt, Fact>> solver) {
+        Path file = dir.resolve(HexFormat.of()
+                .formatHex(digest(cfg.getMethod().toString())) + ".bin");
+        byte[] fingerprint = fingerprint(cfg);
+        DataflowResult<Stmt, Fact> result = load(
+                file, fingerprint, cfg, resultFactory);
+        if (result == null) {
+            result = solver.get();
+            store(file, fingerprint, cfg, result);
+        }
+        return result;
+    }
+
+    private DataflowResult<Stmt, Fact> load(
+            Path file, byte[] fingerprint, CFG<Stmt> cfg,
+            Function<CFG<Stmt>, DataflowResult<Stmt, Fact>> resultFactory) {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            byte[] given = new byte[in.readUnsignedByte()];
+            in.readFully(given);
+            if (!Arrays.equals(given, fingerprint)) {
+                return null;
+            }
+            DataflowResult<Stmt, Fact> result = resultFactory.apply(cfg);
+            List<Stmt> nodes = nodes(cfg);
+            for (Stmt node : nodes) {
+                if (in.readBoolean()) {
+                    result.setInFact(node, codec.readFact(in, cfg));
+                }
+                if (in.readBoolean()) {
+                    result.setOutFact(node, codec.readFact(in, cfg));
+                }
+            }
+            for (int i = in.readInt(); i > 0; --i) {
+                Stmt source = nodes.get(in.readInt());
+                Stmt target = nodes.get(in.readInt());
+                Edge.Kind kind = KINDS[in.readUnsignedByte()];
+                cfg.getOutEdgesOf(source).forEach(edge -> {
+                    if (edge.getTarget() == target && edge.getKind() == kind) {
+                        result.setExecutable(edge);
+                    }
+                });
+            }
+            return result;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load cached result of {}: {}",
+                    cfg.getMethod(), e.toString());
+            return null;
+        }
+    }
+
+    private void store(Path file, byte[] fingerprint,
+                       CFG<Stmt> cfg, DataflowResult<Stmt, Fact> result) {
+        try {
+            Files.createDirectories(dir);
+            // write to a temporary file first, so that concurrent runs
+            // never observe a partially written cache file
+            Path temp = Files.createTempFile(dir, "result", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeByte(fingerprint.length);
+                out.write(fingerprint);
+                for (Stmt node : nodes(cfg)) {
+                    writeFact(out, result.getInFact(node));
+                    writeFact(out, result.getOutFact(node));
+                }
+                out.writeInt(result.getExecutableEdges().size());
+                for (Edge<Stmt> edge : result.getExecutableEdges()) {
+                    out.writeInt(edge.getSource().getIndex());
+                    out.writeInt(edge.getTarget().getIndex());
+                    out.writeByte(edge.getKind().ordinal());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to cache result of {}: {}",
+                    cfg.getMethod(), e.toString());
+        }
+    }
+
+    private void writeFact(DataOutputStream out, Fact fact) throws IOException {
+        out.writeBoolean(fact != null);
+        if (fact != null) {
+            codec.writeFact(out, fact);
+        }
+    }
+
+    /**
+     * @return the nodes of given CFG, in the order of their indexes,
+     * i.e., the statements followed by the entry and the exit.
+     */
+    private static List<Stmt> nodes(CFG<Stmt> cfg) {
+        List<Stmt> nodes = new ArrayList<>(cfg.getIR().getStmts());
+        nodes.add(cfg.getEntry());
+        nodes.add(cfg.getExit());
+        return nodes;
+    }
+
+    /**
+     * @return the fingerprint of given CFG under the options of the cache.
+     * It covers the variables and the statements (including their line
+     * numbers and jump targets) of the IR, and the edges of the CFG
+     * (including the exceptions of exceptional edges), which determine
+     * the data-flow result.
+     */
+    private byte[] fingerprint(CFG<Stmt> cfg) {
+        IR ir = cfg.getIR();
+        StringBuilder builder = new StringBuilder(options).append('\n');
+        for (Var var : ir.getVars()) {
+            builder.append(var.getName()).append(':')
+                    .append(var.getType()).append('\n');
+        }
+        ir.getParams().forEach(p -> builder.append(p.getIndex()).append(' '));
+        builder.append('\n');
+        ir.forEach(stmt -> builder.append(IRPrinter.toString(stmt)).append('\n'));
+        for (Stmt node : nodes(cfg)) {
+            // the edges are sorted as the order of the out edges is unspecified
+            cfg.getOutEdgesOf(node)
+                    .stream()
+                    .map(DataflowResultCache::toString)
+                    .sorted()
+                    .forEach(edge -> builder.append(edge).append(' '));
+            builder.append('\n');
+        }
+        return digest(builder.toString());
+    }
+
+    private static String toString(Edge<Stmt> edge) {
+        StringBuilder builder = new StringBuilder()
+                .append(edge.getKind()).append("->")
+                .append(edge.getTarget().getIndex());
+        if (edge.isSwitchCase()) {
+            builder.append(':').append(edge.getCaseValue());
+        }
+        if (edge.isExceptional()) {
+            edge.getExceptions()
+                    .stream()
+                    .map(Object::toString)
+                    .sorted()
+                    .forEach(e -> builder.append(':').append(e));
+        }
+        return builder.toString();
+    }
+
+    private static byte[] digest(String s) {
+        try {
+            return MessageDigest.getInstance("SHA-256")
+                    .digest(s.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is always supported", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Converts data-flow facts to and from a compact binary form,
+ * so that results can be stored by {@link DataflowResultCache}.
+ * Facts refer to variables by their indexes in the IR.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public interface FactCodec<Fact> {
+
+    /**
+     * Writes given fact to {@code out}.
+     */
+    void writeFact(DataOutput out, Fact fact) throws IOException;
+
+    /**
+     * Reads a fact written by {@link #writeFact} for the given CFG.
+     */
+    Fact readFact(DataInput in, CFG<Stmt> cfg) throws IOException;
+}
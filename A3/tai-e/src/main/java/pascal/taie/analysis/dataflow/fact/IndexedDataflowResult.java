@@ -0,0 +1,129 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Data-flow result for CFGs of statements, which keeps the facts in arrays
+ * indexed by {@link Stmt#getIndex()}. The indexes are dense within a method:
+ * the statements take [0, n), and the entry and exit take n and n + 1.
+ * <p>
+ * After solving, the result can drop the facts produced by the transfer
+ * function, i.e., the OUT (IN) facts of a forward (backward) analysis, via
+ * {@link #retainInputFacts()}. The dropped facts are then recomputed by
+ * {@link DataflowAnalysis#transferNode} on each query and are not kept,
+ * which halves the retained facts when results stay alive in the IR.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Fact> extends DataflowResult<Stmt, Fact> {
+
+    private final CFG<Stmt> cfg;
+
+    private final DataflowAnalysis<Stmt, Fact> analysis;
+
+    private Object[] inFacts;
+
+    private Object[] outFacts;
+
+    public IndexedDataflowResult(CFG<Stmt> cfg, DataflowAnalysis<Stmt, Fact> analysis) {
+        this.cfg = cfg;
+        this.analysis = analysis;
+        // index of exit node is the largest one in the CFG
+        int size = cfg.getExit().getIndex() + 1;
+        this.inFacts = new Object[size];
+        this.outFacts = new Object[size];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(Stmt stmt) {
+        if (inFacts == null) {
+            return transfer(stmt);
+        }
+        return (Fact) inFacts[stmt.getIndex()];
+    }
+
+    @Override
+    public void setInFact(Stmt stmt, Fact fact) {
+        checkRetained(inFacts);
+        inFacts[stmt.getIndex()] = fact;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(Stmt stmt) {
+        if (outFacts == null) {
+            return transfer(stmt);
+        }
+        return (Fact) outFacts[stmt.getIndex()];
+    }
+
+    @Override
+    public void setOutFact(Stmt stmt, Fact fact) {
+        checkRetained(outFacts);
+        outFacts[stmt.getIndex()] = fact;
+    }
+
+    /**
+     * Drops the facts that the transfer function produces from the others,
+     * i.e., the OUT facts for forward analyses and the IN facts for backward
+     * analyses. This should only be called after the result is solved.
+     */
+    public void retainInputFacts() {
+        if (analysis.isForward()) {
+            outFacts = null;
+        } else {
+            inFacts = null;
+        }
+    }
+
+    /**
+     * @return the fact produced by the transfer function for given
+     * statement, or null if the input fact of the statement is absent.
+     */
+    private Fact transfer(Stmt stmt) {
+        boolean forward = analysis.isForward();
+        Fact input = forward ? getInFact(stmt) : getOutFact(stmt);
+        if (input == null) {
+            return null;
+        }
+        Fact output = analysis.newInitialFact(cfg);
+        if (forward) {
+            analysis.transferNode(stmt, input, output);
+        } else {
+            analysis.transferNode(stmt, output, input);
+        }
+        return output;
+    }
+
+    private static void checkRetained(Object[] facts) {
+        if (facts == null) {
+            throw new IllegalStateException(
+                    "Facts produced by transfer are computed on demand");
+        }
+    }
+}
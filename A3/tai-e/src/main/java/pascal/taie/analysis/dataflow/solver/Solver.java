@@ -25,6 +25,20 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -61,13 +75,149 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * Updates a result previously computed by {@link #solve} for given CFG
+     * after the nodes in {@code changed} have been edited without changing
+     * the structure of the CFG. Only forward analyses are supported, as
+     * this solver does not solve backward analyses either, and the result
+     * must keep the facts of all nodes, see
+     * {@link pascal.taie.analysis.dataflow.fact.IndexedDataflowResult#retainInputFacts()}.
+     * <p>
+     * The facts and the executable out edges are reset and solved again
+     * one strongly connected component of the CFG at a time, in topological
+     * order, starting from the components of the changed nodes. Other
+     * components are only reset if the facts or the executable edges flowing
+     * into them have changed, so the reset region ends where the new results
+     * equal the old ones. Each component in the region is reset as a whole,
+     * as the old facts could otherwise keep supporting themselves around
+     * loops, which makes the updated result equal to solving the CFG
+     * from scratch.
+     */
+    public void update(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                       Collection<Node> changed) {
+        if (!analysis.isForward()) {
+            throw new UnsupportedOperationException();
+        }
+        analysis.nodesChanged(cfg, changed);
+        List<List<Node>> components = findComponents(cfg, changed);
+        Map<Node, Integer> componentIndexes = new HashMap<>();
+        for (int i = 0; i < components.size(); ++i) {
+            for (Node node : components.get(i)) {
+                componentIndexes.put(node, i);
+            }
+        }
+        BitSet reset = new BitSet(components.size());
+        changed.forEach(node -> reset.set(componentIndexes.get(node)));
+        // the components are in topological order, so the facts and
+        // the executable edges flowing into a component are final
+        // when the component is reached
+        for (int i = reset.nextSetBit(0); i >= 0; i = reset.nextSetBit(i + 1)) {
+            List<Node> component = components.get(i);
+            Map<Node, Fact> oldFacts = new HashMap<>();
+            Set<Edge<Node>> oldEdges = new HashSet<>();
+            for (Node node : component) {
+                // the boundary fact does not depend on other nodes
+                if (!cfg.isEntry(node)) {
+                    oldFacts.put(node, result.getOutFact(node));
+                    result.setInFact(node, analysis.newInitialFact(cfg));
+                    result.setOutFact(node, analysis.newInitialFact(cfg));
+                    for (Edge<Node> edge : cfg.getOutEdgesOf(node)) {
+                        if (result.isExecutable(edge)) {
+                            oldEdges.add(edge);
+                            result.clearExecutable(edge);
+                        }
+                    }
+                }
+            }
+            doUpdateForward(cfg, result, component);
+            oldFacts.forEach((node, oldFact) -> {
+                boolean factChanged = !oldFact.equals(result.getOutFact(node));
+                for (Edge<Node> edge : cfg.getOutEdgesOf(node)) {
+                    if (factChanged ||
+                            oldEdges.contains(edge) != result.isExecutable(edge)) {
+                        reset.set(componentIndexes.get(edge.getTarget()));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Finds the strongly connected components of the nodes reachable from
+     * {@code changed}, by Tarjan's algorithm. The traversal keeps its own
+     * stack, so that deep CFGs of large methods do not overflow the call stack.
+     *
+     * @return the components in topological order.
+     */
+    private List<List<Node>> findComponents(CFG<Node> cfg, Collection<Node> changed) {
+        Map<Node, Integer> indexes = new HashMap<>();
+        Map<Node, Integer> lowLinks = new HashMap<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Set<Node> onStack = new HashSet<>();
+        Deque<Node> path = new ArrayDeque<>();
+        Deque<Iterator<Node>> iters = new ArrayDeque<>();
+        List<List<Node>> components = new ArrayList<>();
+        for (Node root : changed) {
+            if (indexes.containsKey(root)) {
+                continue;
+            }
+            Node next = root;
+            do {
+                if (next != null) {
+                    // enters next node
+                    indexes.put(next, indexes.size());
+                    lowLinks.put(next, indexes.get(next));
+                    stack.push(next);
+                    onStack.add(next);
+                    path.push(next);
+                    iters.push(cfg.getSuccsOf(next).iterator());
+                }
+                Node node = path.peek();
+                Iterator<Node> iter = iters.peek();
+                next = null;
+                if (iter.hasNext()) {
+                    Node succ = iter.next();
+                    Integer index = indexes.get(succ);
+                    if (index == null) {
+                        next = succ;
+                    } else if (onStack.contains(succ)) {
+                        lowLinks.merge(node, index, Math::min);
+                    }
+                } else {
+                    // leaves the node
+                    path.pop();
+                    iters.pop();
+                    int lowLink = lowLinks.get(node);
+                    if (!path.isEmpty()) {
+                        lowLinks.merge(path.peek(), lowLink, Math::min);
+                    }
+                    if (lowLink == indexes.get(node)) {
+                        List<Node> component = new ArrayList<>();
+                        Node member;
+                        do {
+                            member = stack.pop();
+                            onStack.remove(member);
+                            component.add(member);
+                        } while (member != node);
+                        // starts the component from the node entered first
+                        Collections.reverse(component);
+                        components.add(component);
+                    }
+                }
+            } while (!path.isEmpty());
+        }
+        // Tarjan's algorithm finds the components in reverse topological order
+        Collections.reverse(components);
+        return components;
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = analysis.newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -82,8 +232,8 @@ public abstract class Solver<Node, Fact> {
         result.setOutFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
         for (Node node: cfg) {
             if (!cfg.isEntry(node)) {
-                result.setInFact(node, analysis.newInitialFact());
-                result.setOutFact(node, analysis.newInitialFact());
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
             }
         }
     }
@@ -106,4 +256,14 @@ public abstract class Solver<Node, Fact> {
     protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
     protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+
+    /**
+     * Solves the facts of the nodes in {@code region}, i.e., a strongly
+     * connected component of the CFG, whose facts and executable out edges
+     * have been reset, while the facts and the executable edges flowing into
+     * the region are already final. Only the nodes in the region need to be
+     * solved.
+     */
+    protected abstract void doUpdateForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                            List<Node> region);
 }
@@ -25,8 +25,13 @@ package pascal.taie.analysis.dataflow.solver;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
@@ -37,19 +42,60 @@ class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         // TODO - finish me
-        ArrayList<Node> work_list = new ArrayList<Node>();
-        for (Node node : cfg) {
-            work_list.add(node);
+        // nodes reached from the entry through executable edges
+        Set<Node> reached = new HashSet<>();
+        reached.add(cfg.getEntry());
+        solveForward(cfg, result, cfg.getNodes(), reached);
+    }
+
+    @Override
+    protected void doUpdateForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                   List<Node> region) {
+        // the edges flowing into the region are final
+        Set<Node> reached = new HashSet<>();
+        for (Node node : region) {
+            if (cfg.isEntry(node) || cfg.getInEdgesOf(node)
+                    .stream().anyMatch(result::isExecutable)) {
+                reached.add(node);
+            }
         }
+        solveForward(cfg, result, new LinkedHashSet<>(region), reached);
+    }
+
+    /**
+     * Solves the facts of given nodes; successors out of the nodes
+     * are not added to the work-list.
+     */
+    private void solveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                              Set<Node> nodes, Set<Node> reached) {
+        ArrayList<Node> work_list = new ArrayList<Node>(nodes);
         while(!work_list.isEmpty()) {
             Node node = work_list.remove(0);
             Fact in = result.getInFact(node);
             Fact out = result.getOutFact(node);
-            for (Node p: cfg.getPredsOf(node)) {
-                analysis.meetInto(result.getOutFact(p), in);
+            for (Edge<Node> edge : cfg.getInEdgesOf(node)) {
+                // facts of branches that control never takes are not met
+                if (result.isExecutable(edge)) {
+                    analysis.meetInto(result.getOutFact(edge.getSource()), in);
+                }
+            }
+            boolean changed = analysis.transferNode(node, in, out);
+            if (!reached.contains(node)) {
+                continue;
             }
-            if(analysis.transferNode(node, in, out)) {
-                work_list.addAll(cfg.getSuccsOf(node));
+            for (Edge<Node> edge : cfg.getOutEdgesOf(node)) {
+                Node succ = edge.getTarget();
+                if (result.isExecutable(edge)) {
+                    if (changed && nodes.contains(succ)) {
+                        work_list.add(succ);
+                    }
+                } else if (analysis.isExecutable(edge, out)) {
+                    result.setExecutable(edge);
+                    reached.add(succ);
+                    if (nodes.contains(succ)) {
+                        work_list.add(succ);
+                    }
+                }
             }
         }
     }
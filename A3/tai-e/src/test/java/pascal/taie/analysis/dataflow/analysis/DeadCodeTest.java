@@ -22,16 +22,42 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import pascal.taie.analysis.Tests;
 
+import java.nio.file.Path;
+
 public class DeadCodeTest {
 
+    /**
+     * Directory of the cached results, which is deleted after each test.
+     */
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static final String[] INPUT_CLASSES = {
+            "ControlFlowUnreachable",
+            "UnreachableIfBranch",
+            "UnreachableSwitchBranch",
+            "DeadAssignment",
+            "Loops",
+    };
+
     void testDCD(String inputClass) {
+        testDCD(inputClass, "", "");
+    }
+
+    /**
+     * Tests given class with extra options of livevar and constprop,
+     * which are separated by ';'.
+     */
+    void testDCD(String inputClass, String livevarOpts, String constpropOpts) {
         Tests.test(inputClass, "src/test/resources/dataflow/deadcode/",
                 DeadCodeDetection.ID,
-                "-a", "livevar=strongly:false",
-                "-a", "constprop=edge-refine:false");
+                "-a", "livevar=strongly:false" + livevarOpts,
+                "-a", "constprop=edge-refine:false" + constpropOpts);
     }
 
     @Test
@@ -58,4 +84,39 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testSparseConstantPropagation() {
+        for (String inputClass : INPUT_CLASSES) {
+            testDCD(inputClass, "", ";sparse:true");
+        }
+    }
+
+    @Test
+    public void testIndexedFact() {
+        for (String inputClass : INPUT_CLASSES) {
+            testDCD(inputClass, "", ";indexed-fact:true");
+        }
+    }
+
+    @Test
+    public void testIndexedResult() {
+        for (String inputClass : INPUT_CLASSES) {
+            testDCD(inputClass, ";indexed-result:true", ";indexed-result:true");
+            testDCD(inputClass, ";indexed-result:true",
+                    ";indexed-result:true;indexed-fact:true");
+        }
+    }
+
+    @Test
+    public void testCachedResult() {
+        Path dir = temp.getRoot().toPath();
+        String cacheOpts = ";cache-dir:" + dir;
+        for (String inputClass : INPUT_CLASSES) {
+            // the first run stores the results (including the executable
+            // edges of constprop), and the second run loads them
+            testDCD(inputClass, cacheOpts, cacheOpts);
+            testDCD(inputClass, cacheOpts, cacheOpts);
+        }
+    }
 }
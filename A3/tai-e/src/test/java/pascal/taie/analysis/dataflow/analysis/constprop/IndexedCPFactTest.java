@@ -0,0 +1,126 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class IndexedCPFactTest {
+
+    private static final List<Var> VARS = IntStream.range(0, 4)
+            .mapToObj(i -> new Var(null, "v" + i, PrimitiveType.INT, i))
+            .toList();
+
+    private static final Var A = VARS.get(0);
+
+    private static final Var B = VARS.get(1);
+
+    private static final Var C = VARS.get(2);
+
+    private static final Var D = VARS.get(3);
+
+    private static final Value ONE = Value.makeConstant(1);
+
+    private static final Value TWO = Value.makeConstant(2);
+
+    private static final Value NAC = Value.getNAC();
+
+    private static CPFact fill(CPFact fact, Object... mappings) {
+        for (int i = 0; i < mappings.length; i += 2) {
+            fact.update((Var) mappings[i], (Value) mappings[i + 1]);
+        }
+        return fact;
+    }
+
+    private static CPFact plain(Object... mappings) {
+        return fill(new CPFact(), mappings);
+    }
+
+    private static IndexedCPFact indexed(Object... mappings) {
+        return (IndexedCPFact) fill(new IndexedCPFact(VARS), mappings);
+    }
+
+    @Test
+    public void testGetAndUpdate() {
+        IndexedCPFact fact = indexed(A, ONE, B, NAC);
+        Assert.assertEquals(ONE, fact.get(A));
+        Assert.assertEquals(NAC, fact.get(B));
+        Assert.assertEquals(Value.getUndef(), fact.get(C));
+        Assert.assertFalse(fact.update(A, ONE));
+        Assert.assertTrue(fact.update(A, Value.getUndef()));
+        Assert.assertEquals(Value.getUndef(), fact.get(A));
+        Assert.assertEquals(Value.makeConstant(-1),
+                indexed(D, Value.makeConstant(-1)).get(D));
+    }
+
+    @Test
+    public void testCopyFromIndexed() {
+        CPFact target = plain(C, TWO);
+        Assert.assertTrue(target.copyFrom(indexed(A, ONE, B, NAC)));
+        Assert.assertEquals(plain(A, ONE, B, NAC, C, TWO), target);
+
+        IndexedCPFact indexedTarget = indexed(C, TWO);
+        Assert.assertTrue(indexedTarget.copyFrom(plain(A, ONE)));
+        Assert.assertEquals(indexed(A, ONE, C, TWO), indexedTarget);
+        Assert.assertFalse(indexedTarget.copyFrom(indexed(A, ONE)));
+    }
+
+    @Test
+    public void testCopyFromWith() {
+        CPFact target = plain();
+        Assert.assertTrue(target.copyFromWith(indexed(A, ONE, B, NAC), B, TWO));
+        Assert.assertEquals(plain(A, ONE, B, TWO), target);
+
+        IndexedCPFact indexedTarget = indexed();
+        Assert.assertTrue(indexedTarget.copyFromWith(
+                indexed(A, ONE, B, NAC), A, NAC));
+        Assert.assertEquals(indexed(A, NAC, B, NAC), indexedTarget);
+    }
+
+    @Test
+    public void testMeet() {
+        IndexedCPFact fact = indexed(A, ONE, B, ONE);
+        Assert.assertTrue(fact.meet(indexed(A, ONE, B, TWO, C, TWO)));
+        Assert.assertEquals(indexed(A, ONE, B, NAC, C, TWO), fact);
+        Assert.assertTrue(fact.meet(plain(A, TWO, D, ONE)));
+        Assert.assertEquals(indexed(A, NAC, B, NAC, C, TWO, D, ONE), fact);
+        Assert.assertFalse(fact.meet(plain(A, ONE)));
+    }
+
+    @Test
+    public void testCopyAndPrint() {
+        IndexedCPFact fact = indexed(A, ONE, C, NAC);
+        IndexedCPFact copy = fact.copy();
+        Assert.assertEquals(fact, copy);
+        copy.update(A, TWO);
+        Assert.assertEquals(ONE, fact.get(A));
+        Assert.assertEquals(plain(A, ONE, C, NAC).toString(), fact.toString());
+        Assert.assertEquals(plain(A, ONE, C, NAC).keySet(), fact.keySet());
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class DataflowResultCacheTest {
+
+    /**
+     * Directory of the cached results, which is deleted after each test.
+     */
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
+    private static final String[] INPUT_CLASSES = {
+            "UnreachableIfBranch", "UnreachableSwitchBranch", "Loops",
+    };
+
+    /**
+     * Builds the world of given class and the CFGs of its methods.
+     *
+     * @return the IRs of the methods of given class.
+     */
+    private static List<IR> buildIRs(String inputClass, String cfgOpts) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", inputClass,
+                "-a", CFGBuilder.ID + "=" + cfgOpts});
+        List<IR> irs = new ArrayList<>();
+        for (JMethod method : World.get().getClassHierarchy()
+                .getClass(inputClass).getDeclaredMethods()) {
+            if (!method.isAbstract() && !method.isNative()) {
+                irs.add(method.getIR());
+            }
+        }
+        return irs;
+    }
+
+    private static ConstantPropagation makeConstantPropagation(Path dir) {
+        return dir == null ?
+                new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID)) :
+                new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                        DataflowResultCache.CACHE_DIR, dir.toString()));
+    }
+
+    /**
+     * Fills the cache of given directory with the results of given IRs.
+     *
+     * @return the results of given IRs.
+     */
+    private static List<DataflowResult<Stmt, CPFact>> fill(
+            Path dir, List<IR> irs) {
+        ConstantPropagation solver = makeConstantPropagation(null);
+        ConstantPropagation cp = makeConstantPropagation(dir);
+        DataflowResultCache<CPFact> cache = DataflowResultCache.make(cp, cp);
+        List<DataflowResult<Stmt, CPFact>> results = new ArrayList<>();
+        int[] solved = {0};
+        for (IR ir : irs) {
+            results.add(cache.getOrSolve(ir.getResult(CFGBuilder.ID),
+                    cp::newResult, () -> {
+                ++solved[0];
+                return solver.analyze(ir);
+            }));
+        }
+        Assert.assertEquals(irs.size(), solved[0]);
+        return results;
+    }
+
+    @Test
+    public void testSecondRunHitsCache() {
+        Path dir = temp.getRoot().toPath();
+        for (String inputClass : INPUT_CLASSES) {
+            List<IR> irs = buildIRs(inputClass, "exception:explicit");
+            List<DataflowResult<Stmt, CPFact>> expected = fill(dir, irs);
+            // a new cache, like the one of another run of the analysis
+            ConstantPropagation cp = makeConstantPropagation(dir);
+            DataflowResultCache<CPFact> cache = DataflowResultCache.make(cp, cp);
+            for (int i = 0; i < irs.size(); ++i) {
+                IR ir = irs.get(i);
+                CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+                DataflowResult<Stmt, CPFact> result = cache.getOrSolve(
+                        cfg, cp::newResult, () -> {
+                    throw new AssertionError("Cache miss: " + ir.getMethod());
+                });
+                assertSameResult(cfg, expected.get(i), result);
+            }
+        }
+    }
+
+    @Test
+    public void testCachedResultUsesResultFactory() {
+        Path dir = temp.getRoot().toPath();
+        for (String inputClass : INPUT_CLASSES) {
+            List<IR> irs = buildIRs(inputClass, "exception:explicit");
+            List<DataflowResult<Stmt, CPFact>> expected = fill(dir, irs);
+            ConstantPropagation cp = makeConstantPropagation(dir);
+            DataflowResultCache<CPFact> cache = DataflowResultCache.make(cp, cp);
+            for (int i = 0; i < irs.size(); ++i) {
+                IR ir = irs.get(i);
+                CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+                DataflowResult<Stmt, CPFact> result = cache.getOrSolve(
+                        cfg, c -> new IndexedDataflowResult<>(c, cp), () -> {
+                    throw new AssertionError("Cache miss: " + ir.getMethod());
+                });
+                Assert.assertTrue(result instanceof IndexedDataflowResult);
+                assertSameResult(cfg, expected.get(i), result);
+            }
+        }
+    }
+
+    @Test
+    public void testCFGOptionsInvalidateCache() {
+        Path dir = temp.getRoot().toPath();
+        for (String inputClass : INPUT_CLASSES) {
+            fill(dir, buildIRs(inputClass, "exception:explicit"));
+            // the CFGs may have other exceptional edges, so the cached
+            // results cannot be used, and fill() solves every method again
+            fill(dir, buildIRs(inputClass, "exception:all"));
+        }
+    }
+
+    private static void assertSameResult(CFG<Stmt> cfg,
+                                         DataflowResult<Stmt, CPFact> expected,
+                                         DataflowResult<Stmt, CPFact> actual) {
+        List<Stmt> nodes = new ArrayList<>(cfg.getIR().getStmts());
+        nodes.add(cfg.getEntry());
+        nodes.add(cfg.getExit());
+        for (Stmt node : nodes) {
+            Assert.assertEquals(expected.getInFact(node), actual.getInFact(node));
+            Assert.assertEquals(expected.getOutFact(node), actual.getOutFact(node));
+        }
+        Assert.assertEquals(Set.copyOf(expected.getExecutableEdges()),
+                Set.copyOf(actual.getExecutableEdges()));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class IndexedDataflowResultTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
+    private static final String[] INPUT_CLASSES = {
+            "ControlFlowUnreachable", "UnreachableIfBranch",
+            "UnreachableSwitchBranch", "DeadAssignment", "Loops",
+    };
+
+    /**
+     * Builds the world of given class and the CFGs of its methods.
+     *
+     * @return the IRs of the methods of given class.
+     */
+    private static List<IR> buildIRs(String inputClass) {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", inputClass,
+                "-a", CFGBuilder.ID});
+        List<IR> irs = new ArrayList<>();
+        for (JMethod method : World.get().getClassHierarchy()
+                .getClass(inputClass).getDeclaredMethods()) {
+            if (!method.isAbstract() && !method.isNative()) {
+                irs.add(method.getIR());
+            }
+        }
+        return irs;
+    }
+
+    private static ConstantPropagation makeConstantPropagation(Object... options) {
+        return new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, options));
+    }
+
+    private static List<Stmt> nodes(CFG<Stmt> cfg) {
+        List<Stmt> nodes = new ArrayList<>(cfg.getIR().getStmts());
+        nodes.add(cfg.getEntry());
+        nodes.add(cfg.getExit());
+        return nodes;
+    }
+
+    @Test
+    public void testSameAsDataflowResult() {
+        ConstantPropagation plain = makeConstantPropagation();
+        ConstantPropagation indexed = makeConstantPropagation(
+                "indexed-result", true);
+        for (String inputClass : INPUT_CLASSES) {
+            for (IR ir : buildIRs(inputClass)) {
+                DataflowResult<Stmt, CPFact> expected = plain.analyze(ir);
+                DataflowResult<Stmt, CPFact> result = indexed.analyze(ir);
+                Assert.assertTrue(result instanceof IndexedDataflowResult);
+                for (Stmt node : nodes(ir.getResult(CFGBuilder.ID))) {
+                    Assert.assertEquals(expected.getInFact(node), result.getInFact(node));
+                    Assert.assertEquals(expected.getOutFact(node), result.getOutFact(node));
+                }
+                Assert.assertEquals(Set.copyOf(expected.getExecutableEdges()),
+                        Set.copyOf(result.getExecutableEdges()));
+            }
+        }
+    }
+
+    @Test
+    public void testRecomputeDroppedFacts() {
+        ConstantPropagation plain = makeConstantPropagation();
+        ConstantPropagation retained = makeConstantPropagation(
+                "indexed-result", true, "retain-input-facts", true);
+        for (String inputClass : INPUT_CLASSES) {
+            for (IR ir : buildIRs(inputClass)) {
+                DataflowResult<Stmt, CPFact> expected = plain.analyze(ir);
+                DataflowResult<Stmt, CPFact> result = retained.analyze(ir);
+                for (Stmt node : nodes(ir.getResult(CFGBuilder.ID))) {
+                    Assert.assertEquals(expected.getInFact(node), result.getInFact(node));
+                    // OUT facts of constprop are dropped, and recomputed
+                    // from the IN facts on each query
+                    CPFact out = result.getOutFact(node);
+                    Assert.assertEquals(expected.getOutFact(node), out);
+                    Assert.assertNotSame(out, result.getOutFact(node));
+                }
+                CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+                try {
+                    result.setOutFact(cfg.getExit(), new CPFact());
+                    Assert.fail("Dropped facts cannot be set");
+                } catch (IllegalStateException e) {
+                    // expected
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRetainInputFactsWithoutIndexedResult() {
+        try {
+            makeConstantPropagation("retain-input-facts", true);
+            Assert.fail("retain-input-facts requires indexed-result");
+        } catch (ConfigException e) {
+            // expected
+        }
+    }
+}
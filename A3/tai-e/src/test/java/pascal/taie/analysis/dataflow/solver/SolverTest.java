@@ -0,0 +1,387 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.cfg.TestEdges;
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static pascal.taie.util.collection.Maps.newMap;
+
+public class SolverTest {
+
+    /**
+     * Node which generates and kills some numbers, and can be edited.
+     * The node may branch on the numbers: each out edge with a guard
+     * is only executable if the out fact of the node contains the guard.
+     */
+    private static class Node {
+
+        private final int id;
+
+        private Set<Integer> gen = Set.of();
+
+        private Set<Integer> kill = Set.of();
+
+        private final Map<Node, Integer> guards = newMap();
+
+        private Node(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String toString() {
+            return "Node" + id;
+        }
+    }
+
+    private static class TestCFG implements CFG<Node> {
+
+        private final List<Node> nodes = new ArrayList<>();
+
+        private final Map<Node, Set<Node>> preds = newMap();
+
+        private final Map<Node, Set<Node>> succs = newMap();
+
+        private final Map<Node, Set<Edge<Node>>> inEdges = newMap();
+
+        private final Map<Node, Set<Edge<Node>>> outEdges = newMap();
+
+        private TestCFG(int size) {
+            for (int i = 0; i < size; ++i) {
+                Node node = new Node(i);
+                nodes.add(node);
+                preds.put(node, new LinkedHashSet<>());
+                succs.put(node, new LinkedHashSet<>());
+                inEdges.put(node, new LinkedHashSet<>());
+                outEdges.put(node, new LinkedHashSet<>());
+            }
+        }
+
+        private Node get(int i) {
+            return nodes.get(i);
+        }
+
+        private void addEdge(int source, int target) {
+            if (succs.get(get(source)).add(get(target))) {
+                preds.get(get(target)).add(get(source));
+                Edge<Node> edge = TestEdges.newEdge(
+                        Edge.Kind.GOTO, get(source), get(target));
+                outEdges.get(get(source)).add(edge);
+                inEdges.get(get(target)).add(edge);
+            }
+        }
+
+        @Override
+        public IR getIR() {
+            return null;
+        }
+
+        @Override
+        public JMethod getMethod() {
+            return null;
+        }
+
+        @Override
+        public Node getEntry() {
+            return nodes.get(0);
+        }
+
+        @Override
+        public Node getExit() {
+            return nodes.get(nodes.size() - 1);
+        }
+
+        @Override
+        public boolean isEntry(Node node) {
+            return node == getEntry();
+        }
+
+        @Override
+        public boolean isExit(Node node) {
+            return node == getExit();
+        }
+
+        @Override
+        public Set<Edge<Node>> getInEdgesOf(Node node) {
+            return inEdges.get(node);
+        }
+
+        @Override
+        public Set<Edge<Node>> getOutEdgesOf(Node node) {
+            return outEdges.get(node);
+        }
+
+        @Override
+        public boolean hasNode(Node node) {
+            return preds.containsKey(node);
+        }
+
+        @Override
+        public boolean hasEdge(Node source, Node target) {
+            return succs.get(source).contains(target);
+        }
+
+        @Override
+        public Set<Node> getPredsOf(Node node) {
+            return preds.get(node);
+        }
+
+        @Override
+        public Set<Node> getSuccsOf(Node node) {
+            return succs.get(node);
+        }
+
+        @Override
+        public Set<Node> getNodes() {
+            return new LinkedHashSet<>(nodes);
+        }
+    }
+
+    /**
+     * Set of numbers, which is the fact of {@link GenKill}.
+     */
+    private record Numbers(Set<Integer> numbers) {
+
+        private Numbers() {
+            this(new TreeSet<>());
+        }
+
+        private boolean contains(int number) {
+            return numbers.contains(number);
+        }
+    }
+
+    /**
+     * Forward gen/kill analysis over the numbers of the nodes,
+     * which decides the guards of the edges.
+     */
+    private static class GenKill implements DataflowAnalysis<Node, Numbers> {
+
+        @Override
+        public boolean isForward() {
+            return true;
+        }
+
+        @Override
+        public Numbers newBoundaryFact(CFG<Node> cfg) {
+            return new Numbers(new TreeSet<>(Set.of(-1)));
+        }
+
+        @Override
+        public Numbers newInitialFact() {
+            return new Numbers();
+        }
+
+        @Override
+        public void meetInto(Numbers fact, Numbers target) {
+            target.numbers().addAll(fact.numbers());
+        }
+
+        @Override
+        public boolean transferNode(Node node, Numbers in, Numbers out) {
+            Set<Integer> result = new TreeSet<>(in.numbers());
+            result.removeAll(node.kill);
+            result.addAll(node.gen);
+            boolean changed = !result.equals(out.numbers());
+            out.numbers().clear();
+            out.numbers().addAll(result);
+            return changed;
+        }
+
+        @Override
+        public boolean isExecutable(Edge<Node> edge, Numbers nodeFact) {
+            Integer guard = edge.getSource().guards.get(edge.getTarget());
+            return guard == null || nodeFact.contains(guard);
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Node> edge) {
+            return false;
+        }
+
+        @Override
+        public Numbers transferEdge(Edge<Node> edge, Numbers nodeFact) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static Set<Integer> randomNumbers(Random random) {
+        Set<Integer> numbers = new LinkedHashSet<>();
+        for (int i = random.nextInt(4); i > 0; --i) {
+            numbers.add(random.nextInt(8));
+        }
+        return numbers;
+    }
+
+    private static void edit(TestCFG cfg, Node node, Random random) {
+        node.gen = randomNumbers(random);
+        node.kill = randomNumbers(random);
+        node.guards.clear();
+        for (Node succ : cfg.getSuccsOf(node)) {
+            if (random.nextInt(3) == 0) {
+                node.guards.put(succ, random.nextInt(8));
+            }
+        }
+    }
+
+    /**
+     * @return a random CFG whose nodes are all reachable from the entry
+     * and can all reach the exit, and which has loops.
+     */
+    private static TestCFG randomCFG(Random random) {
+        int size = 3 + random.nextInt(30);
+        TestCFG cfg = new TestCFG(size);
+        for (int i = 0; i < size - 1; ++i) {
+            cfg.addEdge(i, i + 1);
+        }
+        for (int i = random.nextInt(size); i > 0; --i) {
+            cfg.addEdge(1 + random.nextInt(size - 2), 1 + random.nextInt(size - 1));
+        }
+        for (int i = 1; i < size - 1; ++i) {
+            edit(cfg, cfg.get(i), random);
+        }
+        return cfg;
+    }
+
+    private static void assertSameResult(CFG<Node> cfg,
+                                         DataflowResult<Node, Numbers> expected,
+                                         DataflowResult<Node, Numbers> actual) {
+        for (Node node : cfg) {
+            Assert.assertTrue("In fact of " + node,
+                    Objects.equals(expected.getInFact(node), actual.getInFact(node)));
+            Assert.assertTrue("Out fact of " + node,
+                    Objects.equals(expected.getOutFact(node), actual.getOutFact(node)));
+        }
+        Assert.assertEquals(expected.getExecutableEdges(), actual.getExecutableEdges());
+    }
+
+    @Test
+    public void testUpdate() {
+        Solver<Node, Numbers> solver = Solver.makeSolver(new GenKill());
+        Random random = new Random(0);
+        for (int i = 0; i < 500; ++i) {
+            TestCFG cfg = randomCFG(random);
+            DataflowResult<Node, Numbers> result = solver.solve(cfg);
+            List<Node> changed = new ArrayList<>();
+            for (int j = 1 + random.nextInt(3); j > 0; --j) {
+                Node node = cfg.get(1 + random.nextInt(cfg.getNumberOfNodes() - 2));
+                edit(cfg, node, random);
+                changed.add(node);
+            }
+            solver.update(cfg, result, changed);
+            assertSameResult(cfg, solver.solve(cfg), result);
+        }
+    }
+
+    @Test
+    public void testUpdateRemovesFactsAroundLoop() {
+        // entry -> 1 -> 2 -> 1, 2 -> exit
+        TestCFG cfg = new TestCFG(4);
+        cfg.addEdge(0, 1);
+        cfg.addEdge(1, 2);
+        cfg.addEdge(2, 1);
+        cfg.addEdge(2, 3);
+        cfg.get(1).gen = Set.of(1);
+        Solver<Node, Numbers> solver = Solver.makeSolver(new GenKill());
+        DataflowResult<Node, Numbers> result = solver.solve(cfg);
+        Assert.assertTrue(result.getInFact(cfg.get(1)).contains(1));
+        cfg.get(1).gen = Set.of();
+        solver.update(cfg, result, List.of(cfg.get(1)));
+        Assert.assertFalse(result.getInFact(cfg.get(1)).contains(1));
+        Assert.assertFalse(result.getOutFact(cfg.get(3)).contains(1));
+        assertSameResult(cfg, solver.solve(cfg), result);
+    }
+
+    @Test
+    public void testUpdateDecidesEdgesAgain() {
+        // entry -> 1 -> 2 -> 3 -> exit, 1 -> 3, and edge 1 -> 2 is guarded by 5
+        TestCFG cfg = new TestCFG(5);
+        for (int i = 0; i < 4; ++i) {
+            cfg.addEdge(i, i + 1);
+        }
+        cfg.addEdge(1, 3);
+        cfg.get(1).gen = Set.of(5);
+        cfg.get(1).guards.put(cfg.get(2), 5);
+        cfg.get(2).gen = Set.of(2);
+        Solver<Node, Numbers> solver = Solver.makeSolver(new GenKill());
+        DataflowResult<Node, Numbers> result = solver.solve(cfg);
+        Edge<Node> edge = cfg.getOutEdgesOf(cfg.get(1)).iterator().next();
+        Assert.assertTrue(result.isExecutable(edge));
+        Assert.assertTrue(result.getOutFact(cfg.get(3)).contains(2));
+        // the edit makes the branch to node 2 dead
+        cfg.get(1).gen = Set.of();
+        solver.update(cfg, result, List.of(cfg.get(1)));
+        Assert.assertFalse(result.isExecutable(edge));
+        Assert.assertFalse(result.getOutFact(cfg.get(3)).contains(2));
+        assertSameResult(cfg, solver.solve(cfg), result);
+        // and this edit revives it
+        cfg.get(1).gen = Set.of(5);
+        solver.update(cfg, result, List.of(cfg.get(1)));
+        Assert.assertTrue(result.isExecutable(edge));
+        assertSameResult(cfg, solver.solve(cfg), result);
+    }
+
+    @Test
+    public void testUpdateStopsWhereFactsAreUnchanged() {
+        // entry -> 1 -> 2 -> 3 -> exit, and node 2 kills 2
+        TestCFG cfg = new TestCFG(5);
+        for (int i = 0; i < 4; ++i) {
+            cfg.addEdge(i, i + 1);
+        }
+        cfg.get(1).gen = Set.of(1);
+        cfg.get(2).kill = Set.of(2);
+        Solver<Node, Numbers> solver = Solver.makeSolver(new GenKill());
+        DataflowResult<Node, Numbers> result = solver.solve(cfg);
+        Numbers out2 = result.getOutFact(cfg.get(2));
+        Numbers out3 = result.getOutFact(cfg.get(3));
+        // the edit does not change the out fact of node 2,
+        // so the facts of node 3 are not reset
+        cfg.get(1).gen = Set.of(1, 2);
+        solver.update(cfg, result, List.of(cfg.get(1)));
+        Assert.assertNotSame(out2, result.getOutFact(cfg.get(2)));
+        Assert.assertSame(out3, result.getOutFact(cfg.get(3)));
+        assertSameResult(cfg, solver.solve(cfg), result);
+        // this edit changes the facts of all following nodes
+        cfg.get(1).gen = Set.of(3);
+        solver.update(cfg, result, List.of(cfg.get(1)));
+        Assert.assertTrue(result.getOutFact(cfg.get(4)).contains(3));
+        assertSameResult(cfg, solver.solve(cfg), result);
+    }
+}
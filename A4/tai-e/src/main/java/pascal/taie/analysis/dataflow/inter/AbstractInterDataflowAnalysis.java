@@ -121,9 +121,22 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     public Object analyze() {
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
-        DataflowResult<Node, Fact> result = solver.solve();
+        DataflowResult<Node, Fact> result = solve();
         finish();
         return result;
     }
+
+    /**
+     * Solves this analysis on {@link #icfg}. By default, the analysis is
+     * solved by {@link InterSolver}, or by {@link ParallelInterSolver} if
+     * option "parallel" is true; the concrete analysis can overwrite
+     * this method to use another solver.
+     */
+    protected DataflowResult<Node, Fact> solve() {
+        if (getOptions().getBooleanOrDefault("parallel", false)) {
+            return new ParallelInterSolver<>(this, icfg).solve();
+        }
+        solver = new InterSolver<>(this, icfg);
+        return solver.solve();
+    }
 }
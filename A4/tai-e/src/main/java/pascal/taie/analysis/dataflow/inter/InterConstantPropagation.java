@@ -25,10 +25,12 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
@@ -50,9 +52,29 @@ public class InterConstantPropagation extends
 
     private final ConstantPropagation cp;
 
+    /**
+     * Whether to solve this analysis with per-method summaries
+     * instead of propagating facts through the ICFG.
+     */
+    private final boolean summary;
+
+    /**
+     * Maximum number of contexts of a method in the summaries.
+     */
+    private final int summaryContexts;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
+        summary = getOptions().getBooleanOrDefault("summary", false);
+        summaryContexts = getOptions().get("summary-contexts") instanceof Integer n
+                ? n : SummarySolver.DEFAULT_CONTEXT_LIMIT;
+    }
+
+    @Override
+    protected DataflowResult<Stmt, CPFact> solve() {
+        return summary ? new SummarySolver(this, cp, icfg, summaryContexts).solve()
+                : super.solve();
     }
 
     @Override
@@ -97,14 +119,34 @@ public class InterConstantPropagation extends
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
-        Invoke callSite = (Invoke) edge.getSource();
-        CPFact newFact = out.copy();
-        if (callSite.getResult() != null) {
-            newFact.remove(callSite.getResult());
+        // copies the fact only if it has the LHS of the call site to kill
+        Var result = ((Invoke) edge.getSource()).getResult();
+        if (result == null || out.get(result).isUndef()) {
+            return out;
         }
+        CPFact newFact = out.copy();
+        newFact.remove(result);
         return newFact;
     }
 
+    @Override
+    public void meetEdgeInto(ICFGEdge<Stmt> edge, CPFact out, CPFact target) {
+        if (edge instanceof NormalEdge) {
+            cp.meetInto(out, target);
+        } else if (edge instanceof CallToReturnEdge) {
+            // meets all variables but the LHS of the call site, which is
+            // killed by transferCallToReturnEdge()
+            Var result = ((Invoke) edge.getSource()).getResult();
+            out.forEach((var, value) -> {
+                if (!var.equals(result)) {
+                    target.update(var, cp.meetValue(value, target.get(var)));
+                }
+            });
+        } else {
+            cp.meetInto(transferEdge(edge, out), target);
+        }
+    }
+
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
         // TODO - finish me
@@ -68,7 +68,23 @@ public interface InterDataflowAnalysis<Node, Fact> {
      *
      * @param edge the ICFG edge that the transfer function is applied on.
      * @param out  the OUT fact of source node of the edge.
-     * @return the result of edge transfer function.
+     * @return the result of edge transfer function. It may be {@code out}
+     * itself if the edge does not change the fact, thus it must not be
+     * modified.
      */
     Fact transferEdge(ICFGEdge<Node> edge, Fact out);
+
+    /**
+     * Meets the result of transferring a fact along an edge into another
+     * (target) fact, i.e., {@code meetInto(transferEdge(edge, out), target)}.
+     * Analyses can overwrite this method to meet the facts along the edges
+     * that (almost) do not change them without creating transferred facts.
+     *
+     * @param edge   the ICFG edge that the transfer function is applied on.
+     * @param out    the OUT fact of source node of the edge.
+     * @param target the fact to meet the transferred fact into.
+     */
+    default void meetEdgeInto(ICFGEdge<Node> edge, Fact out, Fact target) {
+        meetInto(transferEdge(edge, out), target);
+    }
 }
@@ -0,0 +1,287 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.World;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.callgraph.FrozenCallGraph;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static pascal.taie.util.collection.Maps.newMap;
+import static pascal.taie.util.collection.Sets.newSet;
+
+/**
+ * Priority work-list for {@link InterSolver}. Each ICFG node is queued at
+ * most once, and {@link #poll()} returns the pending node that comes first
+ * in a fixed order: methods are ordered by the SCCs of the call graph with
+ * callees before callers where possible, and the nodes of each method are
+ * in reverse post-order of its intra-procedural edges.
+ * <p>
+ * The position of each node in the order is assigned once as its dense
+ * index, which addresses the pending bits directly via
+ * {@link #offerIndex(int)} and {@link #pollIndex()}. The methods taking
+ * nodes look up their indexes, and are meant for the nodes offered from
+ * outside the solver.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ */
+class InterWorkList<Method, Node> extends AbstractQueue<Node> {
+
+    private final List<Node> order;
+
+    /**
+     * Indexes of the nodes, i.e., their positions in {@link #order}.
+     */
+    private final Map<Node, Integer> positions;
+
+    private final BitSet pending;
+
+    /**
+     * No node before this position is pending.
+     */
+    private int first;
+
+    InterWorkList(ICFG<Method, Node> icfg) {
+        order = new ArrayList<>(icfg.getNumberOfNodes());
+        for (Method method : methodOrder(icfg)) {
+            addMethodNodes(icfg, method);
+        }
+        positions = newMap(icfg.getNumberOfNodes());
+        for (int i = 0; i < order.size(); ++i) {
+            positions.put(order.get(i), i);
+        }
+        // nodes that are not reachable from the entries of their methods
+        for (Node node : icfg) {
+            if (!positions.containsKey(node)) {
+                positions.put(node, order.size());
+                order.add(node);
+            }
+        }
+        pending = new BitSet(order.size());
+    }
+
+    /**
+     * @return the methods of given ICFG in reverse topological order of
+     * the SCCs of the call graph, i.e., callees come before their callers
+     * unless they are in the same SCC. The SCCs of a frozen call graph
+     * are given by {@link FrozenCallGraph#getSCCs()}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <Method, Node> List<Method> methodOrder(ICFG<Method, Node> icfg) {
+        if (World.get().getResult(CallGraphBuilder.ID)
+                instanceof FrozenCallGraph<?, ?> frozen) {
+            // the ICFG is built on the call graph, thus they have the same
+            // methods, and the SCCs are computed over the method indexes
+            List<Method> methods = new ArrayList<>(frozen.getNumberOfMethods());
+            for (List<?> scc : frozen.getSCCs()) {
+                methods.addAll((List<Method>) scc);
+            }
+            return methods;
+        }
+        Graph<Method> callGraph = callGraphOf(icfg);
+        List<Method> methods = new ArrayList<>(callGraph.getNumberOfNodes());
+        for (MergedNode<Method> scc : new TopoSorter<>(
+                new MergedSCCGraph<>(callGraph), true).get()) {
+            methods.addAll(scc.getNodes());
+        }
+        return methods;
+    }
+
+    /**
+     * @return the call graph induced by the call sites of given ICFG.
+     */
+    static <Method, Node> Graph<Method> callGraphOf(ICFG<Method, Node> icfg) {
+        SimpleGraph<Method> callGraph = new SimpleGraph<>();
+        for (Node node : icfg) {
+            Method method = icfg.getContainingMethodOf(node);
+            callGraph.addNode(method);
+            if (icfg.isCallSite(node)) {
+                for (Method callee : icfg.getCalleesOf(node)) {
+                    callGraph.addEdge(method, callee);
+                }
+            }
+        }
+        return callGraph;
+    }
+
+    /**
+     * Appends the nodes of given method in reverse post-order of a
+     * depth-first traversal of the edges within the method.
+     */
+    private void addMethodNodes(ICFG<Method, Node> icfg, Method method) {
+        List<Node> postOrder = new ArrayList<>();
+        Set<Node> visited = newSet();
+        List<Node> stack = new ArrayList<>();
+        List<Iterator<ICFGEdge<Node>>> iters = new ArrayList<>();
+        Node entry = icfg.getEntryOf(method);
+        visited.add(entry);
+        stack.add(entry);
+        iters.add(icfg.getOutEdgesOf(entry).iterator());
+        while (!stack.isEmpty()) {
+            int top = stack.size() - 1;
+            Iterator<ICFGEdge<Node>> it = iters.get(top);
+            if (it.hasNext()) {
+                ICFGEdge<Node> edge = it.next();
+                if (!(edge instanceof CallEdge || edge instanceof ReturnEdge)
+                        && visited.add(edge.getTarget())) {
+                    stack.add(edge.getTarget());
+                    iters.add(icfg.getOutEdgesOf(edge.getTarget()).iterator());
+                }
+            } else {
+                postOrder.add(stack.remove(top));
+                iters.remove(top);
+            }
+        }
+        for (int i = postOrder.size() - 1; i >= 0; --i) {
+            order.add(postOrder.get(i));
+        }
+    }
+
+    /**
+     * @return the number of nodes in this work-list. The indexes of
+     * the nodes are in [0, getNumberOfNodes()).
+     */
+    int getNumberOfNodes() {
+        return order.size();
+    }
+
+    /**
+     * @return the index of given node.
+     */
+    int indexOf(Node node) {
+        return positions.get(node);
+    }
+
+    /**
+     * @return the node of given index.
+     */
+    Node getNode(int index) {
+        return order.get(index);
+    }
+
+    /**
+     * Queues the node of given index if it is not pending.
+     */
+    void offerIndex(int index) {
+        if (!pending.get(index)) {
+            pending.set(index);
+            first = Math.min(first, index);
+        }
+    }
+
+    /**
+     * Retrieves and removes the index of the first pending node.
+     *
+     * @return the index, or -1 if no node is pending.
+     */
+    int pollIndex() {
+        int i = pending.nextSetBit(first);
+        if (i < 0) {
+            first = order.size();
+            return -1;
+        }
+        pending.clear(i);
+        first = i + 1;
+        return i;
+    }
+
+    /**
+     * Queues given node if it is not pending. Always returns true,
+     * as a pending node counts as queued, so that {@link #add}
+     * and {@link #addAll} do not fail on pending nodes.
+     */
+    @Override
+    public boolean offer(Node node) {
+        offerIndex(positions.get(node));
+        return true;
+    }
+
+    @Override
+    public Node poll() {
+        int i = pollIndex();
+        return i < 0 ? null : order.get(i);
+    }
+
+    @Override
+    public Node peek() {
+        int i = pending.nextSetBit(first);
+        return i < 0 ? null : order.get(i);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        Integer i = positions.get(o);
+        return i != null && pending.get(i);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return pending.cardinality();
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return new Iterator<>() {
+
+            private int next = pending.nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Node next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                Node node = order.get(next);
+                next = pending.nextSetBit(next + 1);
+                return node;
+            }
+        };
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static pascal.taie.util.collection.Maps.newMap;
+import static pascal.taie.util.collection.Sets.newSet;
+
+/**
+ * Parallel solver for inter-procedural data-flow analysis.
+ * <p>
+ * The call graph is condensed into its SCCs, and the SCCs are grouped
+ * into levels by their longest distance from the roots of the condensed
+ * graph, so that there are no calls between the SCCs of a level. The
+ * solver alternates top-down and bottom-up waves over the levels; in each
+ * level, the SCCs which have pending nodes are solved concurrently, each
+ * with its own work-list. A node only reads the facts of the nodes of
+ * other SCCs through its in-edges, and those SCCs are not being solved
+ * in the meantime. The facts flowing to other SCCs are propagated between
+ * levels, and the waves stop when no SCC has pending nodes.
+ * <p>
+ * As the solver computes the same fixed point as {@link InterSolver},
+ * only in a different order, the results of the two solvers are the same.
+ * The transfer functions of the analysis must be safe to call concurrently
+ * for nodes of different methods.
+ */
+class ParallelInterSolver<Method, Node, Fact> {
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private DataflowResult<Node, Fact> result;
+
+    /**
+     * SCCs grouped by levels, from the callers to the callees.
+     */
+    private List<List<SCC>> levels;
+
+    private Map<Node, SCC> sccOf;
+
+    ParallelInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                        ICFG<Method, Node> icfg) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        result = new DataflowResult<>();
+        initialize();
+        doSolve();
+        return result;
+    }
+
+    private void initialize() {
+        for (Node node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        icfg.entryMethods().collect(Collectors.toList()).forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            result.setOutFact(entry, analysis.newBoundaryFact(entry));
+            result.setInFact(entry, analysis.newBoundaryFact(entry));
+        });
+        buildLevels();
+    }
+
+    private void buildLevels() {
+        MergedSCCGraph<Method> sccGraph = new MergedSCCGraph<>(
+                InterWorkList.callGraphOf(icfg));
+        Map<MergedNode<Method>, SCC> sccs = newMap();
+        Map<Method, SCC> sccOfMethod = newMap();
+        levels = new ArrayList<>();
+        for (MergedNode<Method> merged : new TopoSorter<>(sccGraph).get()) {
+            int level = 0;
+            for (MergedNode<Method> pred : sccGraph.getPredsOf(merged)) {
+                if (!pred.equals(merged)) {
+                    level = Math.max(level, sccs.get(pred).level + 1);
+                }
+            }
+            SCC scc = new SCC(level);
+            sccs.put(merged, scc);
+            merged.getNodes().forEach(m -> sccOfMethod.put(m, scc));
+            if (level == levels.size()) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(level).add(scc);
+        }
+        sccOf = newMap(icfg.getNodes().size());
+        for (Node node : icfg) {
+            SCC scc = sccOfMethod.get(icfg.getContainingMethodOf(node));
+            sccOf.put(node, scc);
+            scc.workList.add(node);
+            scc.changedEdges.addAll(icfg.getInEdgesOf(node));
+        }
+    }
+
+    private void doSolve() {
+        boolean pending = true;
+        while (pending) {
+            // top-down wave
+            for (List<SCC> level : levels) {
+                solveLevel(level);
+            }
+            // bottom-up wave
+            for (int i = levels.size() - 1; i >= 0; --i) {
+                solveLevel(levels.get(i));
+            }
+            pending = levels.stream()
+                    .flatMap(List::stream)
+                    .anyMatch(scc -> !scc.workList.isEmpty());
+        }
+    }
+
+    /**
+     * Solves the SCCs of a level concurrently, and then propagates
+     * the changes of their facts to the other SCCs.
+     */
+    private void solveLevel(List<SCC> level) {
+        List<ICFGEdge<Node>> crossEdges = level.parallelStream()
+                .filter(scc -> !scc.workList.isEmpty())
+                .map(this::solveSCC)
+                .flatMap(List::stream)
+                .toList();
+        for (ICFGEdge<Node> edge : crossEdges) {
+            SCC target = sccOf.get(edge.getTarget());
+            target.changedEdges.add(edge);
+            target.workList.add(edge.getTarget());
+        }
+    }
+
+    /**
+     * Solves the pending nodes of given SCC until its facts reach
+     * a fixed point, reading the facts of other SCCs as they are.
+     *
+     * @return the edges to other SCCs whose source OUT facts changed.
+     */
+    private List<ICFGEdge<Node>> solveSCC(SCC scc) {
+        List<ICFGEdge<Node>> crossEdges = new ArrayList<>();
+        while (!scc.workList.isEmpty()) {
+            Node node = scc.workList.poll();
+            Fact in = result.getInFact(node);
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                if (scc.changedEdges.remove(edge)) {
+                    analysis.meetEdgeInto(edge,
+                            result.getOutFact(edge.getSource()), in);
+                }
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                    if (sccOf.get(edge.getTarget()) == scc) {
+                        scc.changedEdges.add(edge);
+                        scc.workList.add(edge.getTarget());
+                    } else {
+                        crossEdges.add(edge);
+                    }
+                }
+            }
+        }
+        return crossEdges;
+    }
+
+    /**
+     * An SCC of the call graph, with the pending nodes of its methods.
+     * Only the thread solving the SCC accesses its work-list and
+     * changed edges during a level.
+     */
+    private class SCC {
+
+        private final int level;
+
+        private final Queue<Node> workList = new SetQueue<>();
+
+        /**
+         * In-edges of the nodes of this SCC whose source OUT facts
+         * have changed since the edges were last met.
+         */
+        private final Set<ICFGEdge<Node>> changedEdges = newSet();
+
+        private SCC(int level) {
+            this.level = level;
+        }
+    }
+}
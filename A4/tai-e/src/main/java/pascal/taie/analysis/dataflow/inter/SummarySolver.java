@@ -0,0 +1,387 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.InvokeExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static pascal.taie.util.collection.Maps.newMap;
+import static pascal.taie.util.collection.Sets.newSet;
+
+/**
+ * Summary-based solver for {@link InterConstantPropagation}.
+ * <p>
+ * Instead of propagating facts along call and return edges, this solver
+ * analyzes each method separately for each context, i.e., the tuple of
+ * the {@link Value}s of its arguments, and memoizes a {@link Summary}
+ * of the method per context: the facts of its nodes and the {@link Value}
+ * it returns. A call site looks up the summary of each callee for the
+ * values of its arguments, which is only analyzed if no call site has
+ * used that tuple before, so a method called many times with the same
+ * argument values is analyzed once, and a method is not analyzed again
+ * when the arguments of a call site change to a tuple seen before.
+ * <p>
+ * To keep the result equal to the one of {@link InterSolver}, where
+ * the return edges of a method flow into all return sites of the method,
+ * a call site takes the meet of the values returned by all contexts of
+ * its callees, and the fact of a node in the result is the meet of its
+ * facts in all contexts of its method. Both are monotone in the contexts,
+ * so contexts of call sites whose arguments have changed since do not
+ * affect the result. Only a method that combines several parameters,
+ * e.g., {@code x + y} for contexts (1, 2) and (2, 1), can get more precise
+ * values than in {@link InterSolver}, which merges the contexts first.
+ * <p>
+ * The number of contexts of a method is capped by option
+ * "summary-contexts"; the tuples beyond the cap share one merged
+ * context whose values are the meet of the tuples, which terminates
+ * recursion over changing arguments such as {@code f(n - 1)}.
+ * <p>
+ * Re-analysis is incremental: a summary keeps its own work-list, so when
+ * the merged context changes only the successors of the entry are
+ * re-processed, and when the return value of a method changes only
+ * the return sites of its call sites are re-processed; changes then
+ * propagate from these nodes as usual.
+ */
+class SummarySolver {
+
+    /**
+     * Default maximum number of contexts of a method.
+     */
+    static final int DEFAULT_CONTEXT_LIMIT = 16;
+
+    private final InterConstantPropagation analysis;
+
+    private final ConstantPropagation cp;
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final int contextLimit;
+
+    private final Map<JMethod, MethodSummaries> methods = newMap();
+
+    private final Deque<Summary> workList = new ArrayDeque<>();
+
+    SummarySolver(InterConstantPropagation analysis, ConstantPropagation cp,
+                  ICFG<JMethod, Stmt> icfg, int contextLimit) {
+        this.analysis = analysis;
+        this.cp = cp;
+        this.icfg = icfg;
+        this.contextLimit = contextLimit;
+    }
+
+    DataflowResult<Stmt, CPFact> solve() {
+        for (JMethod method : icfg.entryMethods().collect(Collectors.toList())) {
+            CPFact boundary = analysis.newBoundaryFact(icfg.getEntryOf(method));
+            getSummary(method, method.getIR().getParams()
+                    .stream()
+                    .map(boundary::get)
+                    .toList());
+        }
+        while (!workList.isEmpty()) {
+            Summary summary = workList.pop();
+            summary.queued = false;
+            analyze(summary);
+            MethodSummaries summaries = methods.get(summary.method);
+            Value returnValue = cp.meetValue(
+                    summaries.returnValue, summary.returnValue);
+            if (!returnValue.equals(summaries.returnValue)) {
+                summaries.returnValue = returnValue;
+                summaries.callSites.forEach(callSite -> {
+                    for (ICFGEdge<Stmt> edge : icfg.getOutEdgesOf(callSite.invoke())) {
+                        if (edge instanceof CallToReturnEdge) {
+                            callSite.caller().addNode(edge.getTarget());
+                        }
+                    }
+                    enqueue(callSite.caller());
+                });
+            }
+        }
+        return collectResult();
+    }
+
+    /**
+     * @return the summary of {@code method} for context {@code args}.
+     * If the context is new, its summary is created and added to the
+     * work-list, or if the method already has too many contexts, the
+     * context is merged into the merged context of the method.
+     */
+    private Summary getSummary(JMethod method, List<Value> args) {
+        MethodSummaries summaries = methods.computeIfAbsent(
+                method, MethodSummaries::new);
+        Summary summary = summaries.contexts.get(args);
+        if (summary == null) {
+            if (summaries.contexts.size() < contextLimit) {
+                summary = new Summary(method, args);
+                summaries.contexts.put(args, summary);
+                enqueue(summary);
+            } else if (summaries.merged == null) {
+                summary = summaries.merged = new Summary(method, args);
+                enqueue(summary);
+            } else {
+                summary = summaries.merged;
+                summary.meetArgs(args);
+            }
+        }
+        return summary;
+    }
+
+    private void enqueue(Summary summary) {
+        if (!summary.queued) {
+            summary.queued = true;
+            workList.push(summary);
+        }
+    }
+
+    /**
+     * Processes the pending nodes of given summary, starting from
+     * the facts computed by the previous analysis of the summary,
+     * and updates the return value of the summary.
+     */
+    private void analyze(Summary summary) {
+        DataflowResult<Stmt, CPFact> result = summary.result;
+        while (!summary.nodes.isEmpty()) {
+            Stmt node = summary.nodes.poll();
+            summary.inWorkList.remove(node);
+            CPFact in = result.getInFact(node);
+            for (ICFGEdge<Stmt> edge : icfg.getInEdgesOf(node)) {
+                CPFact predOut = result.getOutFact(edge.getSource());
+                if (edge instanceof NormalEdge ||
+                        edge instanceof CallToReturnEdge) {
+                    analysis.meetEdgeInto(edge, predOut, in);
+                }
+                if (edge instanceof CallToReturnEdge) {
+                    Invoke callSite = (Invoke) edge.getSource();
+                    Value value = applySummaries(summary, callSite, predOut);
+                    Var lhs = callSite.getResult();
+                    if (lhs != null && ConstantPropagation.canHoldInt(lhs)) {
+                        in.update(lhs, cp.meetValue(in.get(lhs), value));
+                    }
+                }
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (ICFGEdge<Stmt> edge : icfg.getOutEdgesOf(node)) {
+                    if (edge instanceof NormalEdge ||
+                            edge instanceof CallToReturnEdge) {
+                        summary.addNode(edge.getTarget());
+                    }
+                }
+            }
+        }
+        IR ir = summary.method.getIR();
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        CPFact exitOut = result.getOutFact(cfg.getExit());
+        Value returnValue = Value.getUndef();
+        for (Var ret : ir.getReturnVars()) {
+            returnValue = cp.meetValue(returnValue, exitOut.get(ret));
+        }
+        summary.returnValue = returnValue;
+    }
+
+    /**
+     * Looks up the summaries of the callees of {@code callSite} in
+     * {@code caller} for the values of the arguments in {@code callSiteOut},
+     * and registers the call site to be re-processed when the return value
+     * of any of the callees changes.
+     *
+     * @return meet of the values returned by the callees of {@code callSite}.
+     */
+    private Value applySummaries(Summary caller, Invoke callSite, CPFact callSiteOut) {
+        InvokeExp invokeExp = callSite.getInvokeExp();
+        List<Value> args = new ArrayList<>(invokeExp.getArgCount());
+        for (Var arg : invokeExp.getArgs()) {
+            args.add(callSiteOut.get(arg));
+        }
+        Value value = Value.getUndef();
+        for (JMethod callee : icfg.getCalleesOf(callSite)) {
+            getSummary(callee, args);
+            MethodSummaries summaries = methods.get(callee);
+            summaries.callSites.add(new CallSite(caller, callSite));
+            value = cp.meetValue(value, summaries.returnValue);
+        }
+        return value;
+    }
+
+    /**
+     * @return the result which holds, for the nodes of all summarized
+     * methods, the meet of their facts in all contexts.
+     */
+    private DataflowResult<Stmt, CPFact> collectResult() {
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        for (Stmt node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        methods.values().forEach(summaries -> {
+            CFG<Stmt> cfg = summaries.method.getIR().getResult(CFGBuilder.ID);
+            List<Summary> contexts = new ArrayList<>(summaries.contexts.values());
+            if (summaries.merged != null) {
+                contexts.add(summaries.merged);
+            }
+            for (Summary summary : contexts) {
+                for (Stmt node : cfg) {
+                    analysis.meetInto(summary.result.getInFact(node),
+                            result.getInFact(node));
+                    analysis.meetInto(summary.result.getOutFact(node),
+                            result.getOutFact(node));
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Call site in a context of its containing method.
+     */
+    private record CallSite(Summary caller, Invoke invoke) {
+    }
+
+    /**
+     * Summaries of all contexts of a method.
+     */
+    private static class MethodSummaries {
+
+        private final JMethod method;
+
+        /**
+         * Summaries of the method keyed by their contexts.
+         */
+        private final Map<List<Value>, Summary> contexts = newMap();
+
+        /**
+         * Summary of the contexts beyond the cap, or null if there is none.
+         */
+        private Summary merged;
+
+        /**
+         * Meet of the values returned by all contexts of the method.
+         */
+        private Value returnValue = Value.getUndef();
+
+        /**
+         * Call sites which call the method.
+         */
+        private final Set<CallSite> callSites = newSet();
+
+        private MethodSummaries(JMethod method) {
+            this.method = method;
+        }
+    }
+
+    /**
+     * Summary of a method in a context, which also holds the state
+     * of its analysis.
+     */
+    private class Summary {
+
+        private final JMethod method;
+
+        private final Stmt entry;
+
+        /**
+         * Facts of the nodes of {@link #method} in this context.
+         */
+        private final DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+
+        /**
+         * Nodes of {@link #method} to be processed.
+         */
+        private final Deque<Stmt> nodes = new ArrayDeque<>();
+
+        private final Set<Stmt> inWorkList = newSet();
+
+        private Value returnValue = Value.getUndef();
+
+        private boolean queued;
+
+        private Summary(JMethod method, List<Value> args) {
+            this.method = method;
+            CFG<Stmt> cfg = method.getIR().getResult(CFGBuilder.ID);
+            entry = cfg.getEntry();
+            for (Stmt node : cfg) {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+                if (!cfg.isEntry(node)) {
+                    addNode(node);
+                }
+            }
+            meetArgs(args);
+        }
+
+        private void addNode(Stmt node) {
+            if (inWorkList.add(node)) {
+                nodes.add(node);
+            }
+        }
+
+        /**
+         * Meets {@code args} into the values of the parameters. If they
+         * change, the successors of the entry are added to the work-list
+         * of this summary, which is enqueued.
+         */
+        private void meetArgs(List<Value> args) {
+            List<Var> params = method.getIR().getParams();
+            CPFact entryOut = result.getOutFact(entry);
+            boolean changed = false;
+            for (int i = 0; i < params.size(); ++i) {
+                Var param = params.get(i);
+                if (ConstantPropagation.canHoldInt(param)) {
+                    Value oldValue = entryOut.get(param);
+                    Value newValue = cp.meetValue(oldValue, args.get(i));
+                    if (!newValue.equals(oldValue)) {
+                        entryOut.update(param, newValue);
+                        result.getInFact(entry).update(param, newValue);
+                        changed = true;
+                    }
+                }
+            }
+            if (changed) {
+                for (ICFGEdge<Stmt> edge : icfg.getOutEdgesOf(entry)) {
+                    addNode(edge.getTarget());
+                }
+                enqueue(this);
+            }
+        }
+    }
+}
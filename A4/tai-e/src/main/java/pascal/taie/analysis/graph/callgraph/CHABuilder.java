@@ -29,9 +29,14 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
 
 import java.util.ArrayDeque;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -44,10 +49,30 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
     private ClassHierarchy hierarchy;
 
+    private final Dispatcher dispatcher = new Dispatcher();
+
+    /**
+     * Cache of the targets of virtual and interface calls, from the
+     * declaring class and subsignature of the method reference.
+     */
+    private final Map<JClass, Map<Subsignature, Set<JMethod>>> virtualTargets =
+            Maps.newConcurrentMap();
+
+    /**
+     * Whether to resolve the call sites of reachable methods in parallel.
+     */
+    private final boolean parallel;
+
+    CHABuilder(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        JMethod entry = World.get().getMainMethod();
+        return parallel ? buildCallGraphInParallel(entry)
+                : buildCallGraph(entry);
     }
 
     private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
@@ -74,6 +99,39 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return callGraph;
     }
 
+    /**
+     * Builds the same call graph as {@link #buildCallGraph(JMethod)}, but
+     * expands the reachable methods in waves: the call sites of the methods
+     * found reachable by the previous wave are resolved in parallel, and then
+     * the resulting edges and new reachable methods are added to the call
+     * graph by the current thread, so that {@link DefaultCallGraph} is never
+     * modified concurrently.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraphInParallel(JMethod entry) {
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        List<JMethod> frontier = List.of(entry);
+        while (!frontier.isEmpty()) {
+            frontier.forEach(callGraph::addReachableMethod);
+            List<Edge<Invoke, JMethod>> edges = frontier.parallelStream()
+                    .flatMap(callGraph::callSitesIn)
+                    .flatMap(cs -> resolve(cs).stream()
+                            .filter(Objects::nonNull)
+                            .map(callee -> new Edge<>(
+                                    CallGraphs.getCallKind(cs), cs, callee)))
+                    .toList();
+            Set<JMethod> next = new LinkedHashSet<>();
+            for (Edge<Invoke, JMethod> edge : edges) {
+                callGraph.addEdge(edge);
+                if (!callGraph.contains(edge.getCallee())) {
+                    next.add(edge.getCallee());
+                }
+            }
+            frontier = List.copyOf(next);
+        }
+        return callGraph;
+    }
+
     /**
      * Resolves call targets (callees) of a call site via CHA.
      */
@@ -90,23 +148,32 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
                 T.add(dispatch(m.getDeclaringClass(), m.getSubsignature()));
                 break;
             case VIRTUAL, INTERFACE:
-                Queue<JClass> worklist = new ArrayDeque<>();
-                worklist.add(m.getDeclaringClass());
-                while (!worklist.isEmpty()) {
-                    JClass c = worklist.poll();
-                    T.add(dispatch(c, m.getSubsignature()));
-                    if (c.isInterface()) {
-                        worklist.addAll(hierarchy.getDirectSubinterfacesOf(c));
-                        worklist.addAll(hierarchy.getDirectImplementorsOf(c));
-                    } else {
-                        worklist.addAll(hierarchy.getDirectSubclassesOf(c));
-                    }
-                }
+                JClass declaringClass = m.getDeclaringClass();
+                T.addAll(virtualTargets
+                        .computeIfAbsent(declaringClass, c -> Maps.newConcurrentMap())
+                        .computeIfAbsent(m.getSubsignature(),
+                                subsig -> resolveVirtual(declaringClass, subsig)));
                 break;
         }
         return T;
     }
 
+    /**
+     * @return the targets of a virtual or interface call to the method
+     * of given class and subsignature, i.e., the methods dispatched on
+     * all subclasses of the class.
+     */
+    private Set<JMethod> resolveVirtual(JClass jclass, Subsignature subsignature) {
+        Set<JMethod> targets = new HashSet<>();
+        for (JClass c : hierarchy.getAllSubclassesOf(jclass)) {
+            JMethod target = dispatch(c, subsignature);
+            if (target != null) {
+                targets.add(target);
+            }
+        }
+        return targets;
+    }
+
     /**
      * Looks up the target method based on given class and method subsignature.
      *
@@ -115,13 +182,6 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private JMethod dispatch(JClass jclass, Subsignature subsignature) {
         // TODO - finish me
-        if (jclass == null) {
-            return null;
-        }
-        JMethod method = jclass.getDeclaredMethod(subsignature);
-        if (method != null && !method.isAbstract()) {
-            return method;
-        }
-        return dispatch(jclass.getSuperClass(), subsignature);
+        return dispatcher.dispatch(jclass, subsignature);
     }
 }
@@ -55,15 +55,25 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
-        CGBuilder<Invoke, JMethod> builder;
-        if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
-        } else {
-            throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
-        }
+        CGBuilder<Invoke, JMethod> builder = switch (algorithm) {
+            case "cha" -> new CHABuilder(
+                    getOptions().getBooleanOrDefault("parallel", false));
+            case "rta" -> new RTABuilder();
+            case "xta" -> new XTABuilder();
+            default -> throw new ConfigException(
+                    "Unknown call graph building algorithm: " + algorithm);
+        };
         ClassHierarchyImpl.setCheckCHA(true);
+        long start = System.nanoTime();
         CallGraph<Invoke, JMethod> callGraph = builder.build();
+        long elapsed = System.nanoTime() - start;
         ClassHierarchyImpl.setCheckCHA(false);
+        logger.info("{} call graph: {} reachable methods, {} edges, built in {} ms",
+                algorithm, callGraph.getNumberOfMethods(),
+                callGraph.getNumberOfEdges(), elapsed / 1_000_000);
+        if (getOptions().getBooleanOrDefault("freeze", false)) {
+            callGraph = new FrozenCallGraph<>(callGraph);
+        }
         takeAction(callGraph);
         return callGraph;
     }
@@ -0,0 +1,66 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+
+/**
+ * Looks up the targets of method dispatch, and caches the results
+ * for the (class, subsignature) pairs that have been looked up.
+ * This class is thread-safe.
+ */
+class Dispatcher {
+
+    private final Map<JClass, Map<Subsignature, JMethod>> dispatchTable =
+            Maps.newConcurrentMap();
+
+    /**
+     * Looks up the target method based on given class and method subsignature.
+     *
+     * @return the dispatched target method, or null if no satisfying method
+     * can be found.
+     */
+    JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        if (jclass == null) {
+            return null;
+        }
+        Map<Subsignature, JMethod> table = dispatchTable.computeIfAbsent(
+                jclass, unused -> Maps.newConcurrentMap());
+        JMethod method = table.get(subsignature);
+        if (method == null) {
+            method = jclass.getDeclaredMethod(subsignature);
+            if (method == null || method.isAbstract()) {
+                method = dispatch(jclass.getSuperClass(), subsignature);
+            }
+            if (method != null) {
+                table.put(subsignature, method);
+            }
+        }
+        return method;
+    }
+}
@@ -0,0 +1,594 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable call graph in compressed sparse row (CSR) form.
+ * <p>
+ * The methods and call sites of the call graph given to the constructor
+ * are numbered densely, and the call sites are numbered in the order of
+ * their containers, so that the call sites in a method form a range of
+ * indexes. The edges are stored in arrays grouped by call site, and the
+ * callers, successors and predecessors of each method are stored in
+ * sorted int arrays.
+ * <p>
+ * Only the index-based methods, e.g., {@link #getSuccOf(int, int)},
+ * traverse the call graph without allocation. The queries of
+ * {@link CallGraph} look up the indexes of their arguments in a map of
+ * boxed indexes, and return views of the arrays, which are allocated per
+ * query, so traversals of the whole call graph should use the index-based
+ * methods, as {@link #getSCCs()} does.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ */
+public class FrozenCallGraph<CallSite, Method>
+        implements CallGraph<CallSite, Method> {
+
+    private final Set<Method> entryMethods;
+
+    /**
+     * Methods by index; the reachable methods come first.
+     */
+    private final Object[] methods;
+
+    private final Map<Method, Integer> methodIndexes;
+
+    private final int numberOfReachable;
+
+    /**
+     * Call sites by index, grouped by their containers.
+     */
+    private final Object[] callSites;
+
+    private final Map<CallSite, Integer> callSiteIndexes;
+
+    /**
+     * Call sites of method {@code m} are in range
+     * [{@code callSiteStarts[m]}, {@code callSiteStarts[m + 1]}).
+     */
+    private final int[] callSiteStarts;
+
+    /**
+     * Index of the container of each call site.
+     */
+    private final int[] containers;
+
+    /**
+     * Edges grouped by call sites, and sorted by callees in each group.
+     */
+    private final Edge<CallSite, Method>[] edges;
+
+    private final MethodEdge<CallSite, Method>[] methodEdges;
+
+    /**
+     * Edges of call site {@code c} are in range
+     * [{@code edgeStarts[c]}, {@code edgeStarts[c + 1]}).
+     */
+    private final int[] edgeStarts;
+
+    /**
+     * Index of the callee of each edge.
+     */
+    private final int[] callees;
+
+    /**
+     * Indexes of the edges into each method, sorted by call sites.
+     */
+    private final Rows inEdges;
+
+    /**
+     * Indexes of the call sites calling each method, sorted.
+     */
+    private final Rows callers;
+
+    private final Rows succs;
+
+    private final Rows preds;
+
+    @SuppressWarnings("unchecked")
+    public FrozenCallGraph(CallGraph<CallSite, Method> callGraph) {
+        entryMethods = callGraph.entryMethods()
+                .collect(Collectors.toUnmodifiableSet());
+        // number methods, reachable ones first
+        List<Method> methodList = new ArrayList<>(callGraph.getNodes());
+        numberOfReachable = methodList.size();
+        methodIndexes = Maps.newMap();
+        for (int i = 0; i < methodList.size(); ++i) {
+            methodIndexes.put(methodList.get(i), i);
+        }
+        callGraph.edges().forEach(edge -> {
+            Method callee = edge.getCallee();
+            if (!methodIndexes.containsKey(callee)) {
+                methodIndexes.put(callee, methodList.size());
+                methodList.add(callee);
+            }
+        });
+        methods = methodList.toArray();
+        // number call sites by containers
+        List<CallSite> callSiteList = new ArrayList<>();
+        callSiteStarts = new int[methods.length + 1];
+        for (int m = 0; m < numberOfReachable; ++m) {
+            callSiteStarts[m] = callSiteList.size();
+            callSiteList.addAll(callGraph.getCallSitesIn(method(m)));
+        }
+        Arrays.fill(callSiteStarts, numberOfReachable,
+                callSiteStarts.length, callSiteList.size());
+        callSites = callSiteList.toArray();
+        callSiteIndexes = Maps.newMap(callSites.length);
+        containers = new int[callSites.length];
+        for (int m = 0; m < numberOfReachable; ++m) {
+            for (int c = callSiteStarts[m]; c < callSiteStarts[m + 1]; ++c) {
+                callSiteIndexes.put(callSite(c), c);
+                containers[c] = m;
+            }
+        }
+        // store edges grouped by call sites
+        List<Edge<CallSite, Method>> edgeList = new ArrayList<>();
+        edgeStarts = new int[callSites.length + 1];
+        for (int c = 0; c < callSites.length; ++c) {
+            edgeStarts[c] = edgeList.size();
+            callGraph.edgesOutOf(callSite(c))
+                    .sorted((e1, e2) -> Integer.compare(
+                            methodIndexes.get(e1.getCallee()),
+                            methodIndexes.get(e2.getCallee())))
+                    .forEach(edgeList::add);
+        }
+        edgeStarts[callSites.length] = edgeList.size();
+        edges = edgeList.toArray((Edge<CallSite, Method>[]) new Edge<?, ?>[0]);
+        methodEdges = (MethodEdge<CallSite, Method>[]) new MethodEdge<?, ?>[edges.length];
+        callees = new int[edges.length];
+        for (int c = 0; c < callSites.length; ++c) {
+            for (int e = edgeStarts[c]; e < edgeStarts[c + 1]; ++e) {
+                callees[e] = methodIndexes.get(edges[e].getCallee());
+                methodEdges[e] = new MethodEdge<>(method(containers[c]),
+                        edges[e].getCallee(), callSite(c));
+            }
+        }
+        // build the rows of in-edges, callers, successors and predecessors
+        int[] edgeIndexes = IntStream.range(0, edges.length).toArray();
+        int[] edgeCallSites = new int[edges.length];
+        for (int c = 0; c < callSites.length; ++c) {
+            Arrays.fill(edgeCallSites, edgeStarts[c], edgeStarts[c + 1], c);
+        }
+        int[] edgeCallers = new int[edges.length];
+        for (int e = 0; e < edges.length; ++e) {
+            edgeCallers[e] = containers[edgeCallSites[e]];
+        }
+        inEdges = new Rows(methods.length, callees, edgeIndexes, false);
+        callers = new Rows(methods.length, callees, edgeCallSites, true);
+        succs = new Rows(methods.length, edgeCallers, callees, true);
+        preds = new Rows(methods.length, callees, edgeCallers, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Method method(int index) {
+        return (Method) methods[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private CallSite callSite(int index) {
+        return (CallSite) callSites[index];
+    }
+
+    // Index-based traversal.
+
+    /**
+     * @return the index of given method, or -1 if the method
+     * is not in this call graph.
+     */
+    public int getIndexOf(Method method) {
+        Integer index = methodIndexes.get(method);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return the method of given index.
+     */
+    public Method getMethod(int index) {
+        return method(index);
+    }
+
+    /**
+     * @return the number of indexed methods, which may exceed
+     * {@link #getNumberOfMethods()} if some callees are not reachable.
+     */
+    public int getNumberOfIndexedMethods() {
+        return methods.length;
+    }
+
+    public int getNumberOfSuccsOf(int method) {
+        return succs.size(method);
+    }
+
+    /**
+     * @return the index of the {@code i}-th successor of given method.
+     */
+    public int getSuccOf(int method, int i) {
+        return succs.get(method, i);
+    }
+
+    public int getNumberOfPredsOf(int method) {
+        return preds.size(method);
+    }
+
+    /**
+     * @return the index of the {@code i}-th predecessor of given method.
+     */
+    public int getPredOf(int method, int i) {
+        return preds.get(method, i);
+    }
+
+    /**
+     * Computes the strongly connected components (SCCs) of the reachable
+     * methods by Tarjan's algorithm over the method indexes.
+     *
+     * @return the SCCs in reverse topological order, i.e., the callees of
+     * the methods of each SCC are in the SCC itself or in the SCCs before it.
+     */
+    public List<List<Method>> getSCCs() {
+        int n = numberOfReachable;
+        // discovery order of each method starting from 1, 0 if unvisited
+        int[] order = new int[n];
+        int[] lowLinks = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0;
+        // methods being traversed, and the next successor of each method
+        int[] path = new int[n];
+        int[] nextSuccs = new int[n];
+        int depth = 0;
+        int counter = 0;
+        List<List<Method>> sccs = new ArrayList<>();
+        for (int root = 0; root < n; ++root) {
+            if (order[root] != 0) {
+                continue;
+            }
+            order[root] = lowLinks[root] = ++counter;
+            stack[top++] = root;
+            onStack[root] = true;
+            path[depth++] = root;
+            while (depth > 0) {
+                int m = path[depth - 1];
+                if (nextSuccs[m] < succs.size(m)) {
+                    int succ = succs.get(m, nextSuccs[m]++);
+                    if (succ >= n) {
+                        // callee which is not reachable
+                        continue;
+                    }
+                    if (order[succ] == 0) {
+                        order[succ] = lowLinks[succ] = ++counter;
+                        stack[top++] = succ;
+                        onStack[succ] = true;
+                        path[depth++] = succ;
+                    } else if (onStack[succ]) {
+                        lowLinks[m] = Math.min(lowLinks[m], order[succ]);
+                    }
+                } else {
+                    --depth;
+                    if (depth > 0) {
+                        int caller = path[depth - 1];
+                        lowLinks[caller] = Math.min(lowLinks[caller], lowLinks[m]);
+                    }
+                    if (lowLinks[m] == order[m]) {
+                        List<Method> scc = new ArrayList<>();
+                        int member;
+                        do {
+                            member = stack[--top];
+                            onStack[member] = false;
+                            scc.add(method(member));
+                        } while (member != m);
+                        sccs.add(scc);
+                    }
+                }
+            }
+        }
+        return sccs;
+    }
+
+    // Implementation for CallGraph interface.
+
+    @Override
+    public Set<CallSite> getCallersOf(Method callee) {
+        int m = getIndexOf(callee);
+        return m < 0 ? Set.of() : callers.view(m, callSites, callSiteIndexes);
+    }
+
+    @Override
+    public Set<Method> getCalleesOf(CallSite callSite) {
+        return getCallees(callSiteIndexes.get(callSite));
+    }
+
+    private Set<Method> getCallees(Integer callSite) {
+        return callSite == null ? Set.of() : new IndexSet<>(methods, methodIndexes,
+                callees, edgeStarts[callSite], edgeStarts[callSite + 1]);
+    }
+
+    @Override
+    public Set<Method> getCalleesOfM(Method caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public Method getContainerOf(CallSite callSite) {
+        Integer c = callSiteIndexes.get(callSite);
+        return c == null ? null : method(containers[c]);
+    }
+
+    @Override
+    public Set<CallSite> getCallSitesIn(Method method) {
+        int m = getIndexOf(method);
+        return m < 0 ? Set.of() : new IndexSet<>(callSites, callSiteIndexes,
+                null, callSiteStarts[m], callSiteStarts[m + 1]);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesOutOf(CallSite callSite) {
+        Integer c = callSiteIndexes.get(callSite);
+        return c == null ? Stream.of()
+                : Arrays.stream(edges, edgeStarts[c], edgeStarts[c + 1]);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesInTo(Method method) {
+        int m = getIndexOf(method);
+        return m < 0 ? Stream.of() : inEdges.stream(m).mapToObj(e -> edges[e]);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edges() {
+        return Arrays.stream(edges);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return edges.length;
+    }
+
+    @Override
+    public Stream<Method> entryMethods() {
+        return entryMethods.stream();
+    }
+
+    @Override
+    public Stream<Method> reachableMethods() {
+        return IntStream.range(0, numberOfReachable).mapToObj(this::method);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return numberOfReachable;
+    }
+
+    @Override
+    public boolean contains(Method method) {
+        int m = getIndexOf(method);
+        return 0 <= m && m < numberOfReachable;
+    }
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return callSiteIndexes.containsKey(stmt);
+    }
+
+    @Override
+    public Set<Method> getResult(Stmt stmt) {
+        return getCallees(callSiteIndexes.get(stmt));
+    }
+
+    // Implementation for Graph interface.
+
+    @Override
+    public boolean hasNode(Method node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(Method source, Method target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getInEdgesOf(Method method) {
+        int m = getIndexOf(method);
+        return m < 0 ? Set.of() : inEdges.view(m, methodEdges, null);
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getOutEdgesOf(Method method) {
+        int m = getIndexOf(method);
+        return m < 0 ? Set.of() : new IndexSet<>(methodEdges, null, null,
+                edgeStarts[callSiteStarts[m]], edgeStarts[callSiteStarts[m + 1]]);
+    }
+
+    @Override
+    public Set<Method> getPredsOf(Method node) {
+        int m = getIndexOf(node);
+        return m < 0 ? Set.of() : preds.view(m, methods, methodIndexes);
+    }
+
+    @Override
+    public Set<Method> getSuccsOf(Method node) {
+        int m = getIndexOf(node);
+        return m < 0 ? Set.of() : succs.view(m, methods, methodIndexes);
+    }
+
+    @Override
+    public Set<Method> getNodes() {
+        return new IndexSet<>(methods, methodIndexes, null, 0, numberOfReachable);
+    }
+
+    /**
+     * Rows of int values in CSR form: the values of row {@code r} are in
+     * {@code values[starts[r]]} to {@code values[starts[r + 1] - 1]}.
+     */
+    private static class Rows {
+
+        private final int[] starts;
+
+        private final int[] values;
+
+        /**
+         * Groups {@code values[i]} by {@code rows[i]}. If {@code distinct},
+         * the values in each row are sorted and deduplicated; otherwise,
+         * they keep their order in {@code values}.
+         */
+        private Rows(int numberOfRows, int[] rows, int[] values, boolean distinct) {
+            int[] counts = new int[numberOfRows + 1];
+            for (int row : rows) {
+                ++counts[row + 1];
+            }
+            for (int r = 0; r < numberOfRows; ++r) {
+                counts[r + 1] += counts[r];
+            }
+            int[] grouped = new int[values.length];
+            int[] next = Arrays.copyOf(counts, numberOfRows);
+            for (int i = 0; i < rows.length; ++i) {
+                grouped[next[rows[i]]++] = values[i];
+            }
+            if (!distinct) {
+                this.starts = counts;
+                this.values = grouped;
+                return;
+            }
+            this.starts = new int[numberOfRows + 1];
+            int size = 0;
+            for (int r = 0; r < numberOfRows; ++r) {
+                this.starts[r] = size;
+                Arrays.sort(grouped, counts[r], counts[r + 1]);
+                for (int i = counts[r]; i < counts[r + 1]; ++i) {
+                    if (i == counts[r] || grouped[i] != grouped[i - 1]) {
+                        grouped[size++] = grouped[i];
+                    }
+                }
+            }
+            this.starts[numberOfRows] = size;
+            this.values = Arrays.copyOf(grouped, size);
+        }
+
+        private int size(int row) {
+            return starts[row + 1] - starts[row];
+        }
+
+        private int get(int row, int i) {
+            return values[starts[row] + i];
+        }
+
+        private IntStream stream(int row) {
+            return Arrays.stream(values, starts[row], starts[row + 1]);
+        }
+
+        private <E> Set<E> view(int row, Object[] table, Map<E, Integer> indexes) {
+            return new IndexSet<>(table, indexes, values, starts[row], starts[row + 1]);
+        }
+    }
+
+    /**
+     * Unmodifiable set view of the objects in {@code table} whose indexes
+     * are {@code ids[begin]} to {@code ids[end - 1]}, or {@code begin} to
+     * {@code end - 1} if {@code ids} is null. If {@code indexes} is given,
+     * the indexes must be sorted, and {@link #contains(Object)} is
+     * answered by binary search.
+     */
+    private static class IndexSet<E> extends AbstractSet<E> {
+
+        private final Object[] table;
+
+        private final Map<E, Integer> indexes;
+
+        private final int[] ids;
+
+        private final int begin;
+
+        private final int end;
+
+        private IndexSet(Object[] table, Map<E, Integer> indexes,
+                         int[] ids, int begin, int end) {
+            this.table = table;
+            this.indexes = indexes;
+            this.ids = ids;
+            this.begin = begin;
+            this.end = end;
+        }
+
+        private int idAt(int i) {
+            return ids == null ? i : ids[i];
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (indexes == null) {
+                return super.contains(o);
+            }
+            Integer index = indexes.get(o);
+            if (index == null) {
+                return false;
+            }
+            return ids == null ? begin <= index && index < end
+                    : Arrays.binarySearch(ids, begin, end, index) >= 0;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int i = begin;
+
+                @Override
+                public boolean hasNext() {
+                    return i < end;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public E next() {
+                    if (i >= end) {
+                        throw new NoSuchElementException();
+                    }
+                    return (E) table[idAt(i++)];
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return end - begin;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of Rapid Type Analysis (RTA).
+ * <p>
+ * Like CHA, but virtual and interface calls are only dispatched on the
+ * classes instantiated in reachable methods. When a class is instantiated,
+ * the virtual call sites whose method references are declared in its
+ * superclasses or superinterfaces are dispatched on the class.
+ * <p>
+ * Classes are instantiated by {@link New} statements, and by
+ * {@link AssignLiteral} statements of reference literals, e.g., string
+ * and class literals. Arrays are instances of {@code java.lang.Object}
+ * for dispatch, so creating an array instantiates that class. Objects
+ * created outside reachable code, e.g., by the JVM or by native and
+ * reflective calls, are not modeled.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private final Dispatcher dispatcher = new Dispatcher();
+
+    private DefaultCallGraph callGraph;
+
+    private final Queue<JMethod> workList = new ArrayDeque<>();
+
+    /**
+     * Classes instantiated in reachable methods.
+     */
+    private final Set<JClass> instantiatedClasses = Sets.newSet();
+
+    /**
+     * Virtual and interface call sites in reachable methods,
+     * indexed by the declaring classes of their method references.
+     */
+    private final MultiMap<JClass, Invoke> virtualCallSites = Maps.newMultiMap();
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        callGraph = new DefaultCallGraph();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method) && !method.isAbstract()) {
+                for (Stmt stmt : method.getIR()) {
+                    if (stmt instanceof New newStmt) {
+                        instantiate(newStmt.getRValue() instanceof NewInstance newInstance
+                                ? newInstance.getType().getJClass()
+                                : hierarchy.getJREClass(ClassNames.OBJECT));
+                    } else if (stmt instanceof AssignLiteral assign &&
+                            assign.getRValue().getType() instanceof ClassType type) {
+                        instantiate(type.getJClass());
+                    } else if (stmt instanceof Invoke callSite) {
+                        processCallSite(callSite);
+                    }
+                }
+            }
+        }
+        return callGraph;
+    }
+
+    private void processCallSite(Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass declaringClass = methodRef.getDeclaringClass();
+        switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC -> addCallEdge(callSite,
+                    declaringClass.getDeclaredMethod(methodRef.getSubsignature()));
+            case SPECIAL -> addCallEdge(callSite,
+                    dispatcher.dispatch(declaringClass, methodRef.getSubsignature()));
+            case VIRTUAL, INTERFACE -> {
+                virtualCallSites.put(declaringClass, callSite);
+                for (JClass c : hierarchy.getAllSubclassesOf(declaringClass)) {
+                    if (instantiatedClasses.contains(c)) {
+                        addCallEdge(callSite,
+                                dispatcher.dispatch(c, methodRef.getSubsignature()));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that given class is instantiated, and dispatches the
+     * virtual call sites that may be invoked on its instances.
+     */
+    private void instantiate(JClass jclass) {
+        if (jclass == null || !instantiatedClasses.add(jclass)) {
+            return;
+        }
+        Set<JClass> superTypes = Sets.newSet();
+        Queue<JClass> queue = new ArrayDeque<>();
+        queue.add(jclass);
+        while (!queue.isEmpty()) {
+            JClass c = queue.poll();
+            if (superTypes.add(c)) {
+                if (c.getSuperClass() != null) {
+                    queue.add(c.getSuperClass());
+                }
+                queue.addAll(c.getInterfaces());
+            }
+        }
+        for (JClass superType : superTypes) {
+            for (Invoke callSite : virtualCallSites.get(superType)) {
+                addCallEdge(callSite, dispatcher.dispatch(
+                        jclass, callSite.getMethodRef().getSubsignature()));
+            }
+        }
+    }
+
+    private void addCallEdge(Invoke callSite, JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+}
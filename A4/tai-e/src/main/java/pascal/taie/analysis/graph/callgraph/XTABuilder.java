@@ -0,0 +1,326 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.proginfo.FieldRef;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Catch;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.ir.stmt.Throw;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ArrayType;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of XTA, a refinement of RTA.
+ * <p>
+ * Instead of one global set of instantiated classes, XTA keeps a set of
+ * classes for each reachable method and each field, a single set for
+ * the contents of all arrays, and a single set for thrown exceptions.
+ * A method's set starts with the classes it instantiates, including the
+ * classes of the reference literals (e.g., string and class literals) it
+ * assigns, and {@code java.lang.Object} if it creates arrays, as arrays
+ * are instances of that class for dispatch. Classes then flow:
+ * <ul>
+ *     <li>from callers to callees, filtered by the parameter types
+ *     (and the declaring class for instance methods),</li>
+ *     <li>from callees to callers, filtered by the return type,</li>
+ *     <li>from methods to the fields (arrays) they store to,
+ *     and from fields (arrays) to the methods that load them,
+ *     filtered by the types of the stored or loaded values,</li>
+ *     <li>from methods that throw exceptions to the methods that catch
+ *     them, filtered by the types of the caught exceptions.</li>
+ * </ul>
+ * Virtual and interface calls in a method are only dispatched on
+ * the classes in the set of the method. Like RTA, objects created
+ * outside reachable code, e.g., by the JVM (including the implicit
+ * exceptions it throws) or by native and reflective calls, are not
+ * modeled.
+ */
+class XTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    /**
+     * Key of the set of classes stored in arrays.
+     */
+    private static final Object ARRAYS = new Object();
+
+    /**
+     * Key of the set of classes of thrown exceptions.
+     */
+    private static final Object EXCEPTIONS = new Object();
+
+    private ClassHierarchy hierarchy;
+
+    /**
+     * The class {@code java.lang.Object}, which represents arrays.
+     */
+    private JClass objectClass;
+
+    private final Dispatcher dispatcher = new Dispatcher();
+
+    private DefaultCallGraph callGraph;
+
+    private final Queue<JMethod> methodWorkList = new ArrayDeque<>();
+
+    /**
+     * Sets of classes of the methods, fields and arrays.
+     */
+    private final Map<Object, Set<JClass>> classSets = Maps.newMap();
+
+    /**
+     * Flows of classes between the sets.
+     */
+    private final MultiMap<Object, Flow> flows = Maps.newMultiMap();
+
+    /**
+     * Virtual and interface call sites in each reachable method.
+     */
+    private final MultiMap<JMethod, Invoke> virtualCallSites = Maps.newMultiMap();
+
+    /**
+     * Classes to be added to the sets, which have not been propagated.
+     */
+    private final Map<Object, Set<JClass>> pendingClasses = Maps.newMap();
+
+    private final Queue<Object> classWorkList = new ArrayDeque<>();
+
+    /**
+     * A flow of classes to {@code target}, which passes the subclasses
+     * of {@code filter}. A null filter stands for array types, and passes
+     * only {@link #objectClass}.
+     */
+    private record Flow(Object target, JClass filter) {
+    }
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        objectClass = hierarchy.getJREClass(ClassNames.OBJECT);
+        callGraph = new DefaultCallGraph();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        methodWorkList.add(entry);
+        while (!methodWorkList.isEmpty() || !classWorkList.isEmpty()) {
+            while (!methodWorkList.isEmpty()) {
+                JMethod method = methodWorkList.poll();
+                if (callGraph.addReachableMethod(method) && !method.isAbstract()) {
+                    processMethod(method);
+                }
+            }
+            while (!classWorkList.isEmpty()) {
+                Object key = classWorkList.poll();
+                propagate(key, pendingClasses.remove(key));
+            }
+        }
+        return callGraph;
+    }
+
+    private void processMethod(JMethod method) {
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt) {
+                addClass(method, newStmt.getRValue() instanceof NewInstance newInstance
+                        ? newInstance.getType().getJClass() : objectClass);
+            } else if (stmt instanceof AssignLiteral assign) {
+                if (assign.getRValue().getType() instanceof ClassType type) {
+                    addClass(method, type.getJClass());
+                }
+            } else if (stmt instanceof LoadField load) {
+                addFlow(fieldKey(load.getFieldRef()), method,
+                        load.getLValue().getType());
+            } else if (stmt instanceof StoreField store) {
+                addFlow(method, fieldKey(store.getFieldRef()),
+                        store.getRValue().getType());
+            } else if (stmt instanceof LoadArray load) {
+                addFlow(ARRAYS, method, load.getLValue().getType());
+            } else if (stmt instanceof StoreArray store) {
+                addFlow(method, ARRAYS, store.getRValue().getType());
+            } else if (stmt instanceof Throw throwStmt) {
+                addFlow(method, EXCEPTIONS, throwStmt.getExceptionRef().getType());
+            } else if (stmt instanceof Catch catchStmt) {
+                addFlow(EXCEPTIONS, method, catchStmt.getExceptionRef().getType());
+            } else if (stmt instanceof Invoke callSite) {
+                processCallSite(method, callSite);
+            }
+        }
+    }
+
+    private void processCallSite(JMethod caller, Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass declaringClass = methodRef.getDeclaringClass();
+        switch (CallGraphs.getCallKind(callSite)) {
+            case STATIC -> addCallEdge(caller, callSite,
+                    declaringClass.getDeclaredMethod(methodRef.getSubsignature()));
+            case SPECIAL -> addCallEdge(caller, callSite,
+                    dispatcher.dispatch(declaringClass, methodRef.getSubsignature()));
+            case VIRTUAL, INTERFACE -> {
+                virtualCallSites.put(caller, callSite);
+                dispatch(caller, callSite, getClasses(caller));
+            }
+        }
+    }
+
+    /**
+     * Dispatches a virtual call site in {@code caller} on the
+     * classes in {@code classes} that may be its receivers.
+     */
+    private void dispatch(JMethod caller, Invoke callSite,
+                          Collection<JClass> classes) {
+        MethodRef methodRef = callSite.getMethodRef();
+        Collection<JClass> receivers = hierarchy.getAllSubclassesOf(
+                methodRef.getDeclaringClass());
+        for (JClass c : classes) {
+            if (receivers.contains(c)) {
+                addCallEdge(caller, callSite,
+                        dispatcher.dispatch(c, methodRef.getSubsignature()));
+            }
+        }
+    }
+
+    private void addCallEdge(JMethod caller, Invoke callSite, JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            methodWorkList.add(callee);
+            for (Type paramType : callee.getParamTypes()) {
+                addFlow(caller, callee, paramType);
+            }
+            if (!callee.isStatic()) {
+                addFlow(caller, callee, callee.getDeclaringClass().getType());
+            }
+            if (callSite.getResult() != null) {
+                addFlow(callee, caller, callee.getReturnType());
+            }
+        }
+    }
+
+    /**
+     * @return the key of the set of classes of the field referenced
+     * by {@code fieldRef}.
+     */
+    private static Object fieldKey(FieldRef fieldRef) {
+        JField field = fieldRef.resolveNullable();
+        return field != null ? field : fieldRef;
+    }
+
+    private Set<JClass> getClasses(Object key) {
+        return classSets.computeIfAbsent(key, unused -> Sets.newHybridSet());
+    }
+
+    /**
+     * Adds a flow from {@code source} to {@code target}, which passes the
+     * classes that can be values of {@code type}, and propagates the
+     * classes of {@code source} along the new flow.
+     */
+    private void addFlow(Object source, Object target, Type type) {
+        Flow flow;
+        if (type instanceof ClassType classType &&
+                classType.getJClass() != null) {
+            flow = new Flow(target, classType.getJClass());
+        } else if (type instanceof ArrayType) {
+            flow = new Flow(target, null);
+        } else {
+            return;
+        }
+        if (flows.put(source, flow)) {
+            addClasses(target, filter(getClasses(source), flow.filter()));
+        }
+    }
+
+    private Set<JClass> filter(Collection<JClass> classes, JClass filter) {
+        Set<JClass> result = Sets.newHybridSet();
+        if (filter == null) {
+            if (classes.contains(objectClass)) {
+                result.add(objectClass);
+            }
+            return result;
+        }
+        Collection<JClass> subclasses = hierarchy.getAllSubclassesOf(filter);
+        for (JClass c : classes) {
+            if (subclasses.contains(c)) {
+                result.add(c);
+            }
+        }
+        return result;
+    }
+
+    private void addClass(Object key, JClass jclass) {
+        if (jclass != null) {
+            addClasses(key, Set.of(jclass));
+        }
+    }
+
+    private void addClasses(Object key, Set<JClass> classes) {
+        if (!classes.isEmpty()) {
+            Set<JClass> pending = pendingClasses.get(key);
+            if (pending == null) {
+                pendingClasses.put(key, Sets.newHybridSet(classes));
+                classWorkList.add(key);
+            } else {
+                pending.addAll(classes);
+            }
+        }
+    }
+
+    /**
+     * Adds pending classes to the set of {@code key}, and propagates
+     * the new ones along the flows from the set.
+     */
+    private void propagate(Object key, Set<JClass> classes) {
+        Set<JClass> classSet = getClasses(key);
+        classes.removeIf(c -> !classSet.add(c));
+        if (classes.isEmpty()) {
+            return;
+        }
+        if (key instanceof JMethod method) {
+            for (Invoke callSite : virtualCallSites.get(method)) {
+                dispatch(method, callSite, classes);
+            }
+        }
+        for (Flow flow : flows.get(key)) {
+            addClasses(flow.target(), filter(classes, flow.filter()));
+        }
+    }
+}
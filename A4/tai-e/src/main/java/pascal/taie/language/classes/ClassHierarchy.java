@@ -75,6 +75,13 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return all subclasses of given class, including itself. For an
+     * interface, they are its direct and indirect subinterfaces and
+     * implementors, and the subclasses of the implementors.
+     */
+    Collection<JClass> getAllSubclassesOf(JClass jclass);
+
     /**
      * Obtains a JRE class by it name.
      *
@@ -28,12 +28,16 @@ import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.util.AnalysisException;
 
 import javax.annotation.Nullable;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
 import static pascal.taie.util.collection.Maps.newMap;
 import static pascal.taie.util.collection.Maps.newSmallMap;
 import static pascal.taie.util.collection.Sets.newHybridSet;
@@ -65,6 +69,12 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    /**
+     * Map from each class to all its subclasses, computed on demand.
+     * It is cleared when new classes are added.
+     */
+    private final Map<JClass, Set<JClass>> allSubclasses = newConcurrentMap();
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -97,6 +107,7 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     @Override
     public void addClass(JClass jclass) {
+        allSubclasses.clear();
         // Add direct subinterface
         if (jclass.isInterface()) {
             jclass.getInterfaces().forEach(iface ->
@@ -160,6 +171,30 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    @Override
+    public Collection<JClass> getAllSubclassesOf(JClass jclass) {
+        Set<JClass> subclasses = allSubclasses.get(jclass);
+        if (subclasses == null) {
+            subclasses = newHybridSet();
+            Queue<JClass> workList = new ArrayDeque<>();
+            workList.add(jclass);
+            while (!workList.isEmpty()) {
+                JClass c = workList.poll();
+                if (subclasses.add(c)) {
+                    if (c.isInterface()) {
+                        workList.addAll(getDirectSubinterfacesOf(c));
+                        workList.addAll(getDirectImplementorsOf(c));
+                    } else {
+                        workList.addAll(getDirectSubclassesOf(c));
+                    }
+                }
+            }
+            subclasses = Collections.unmodifiableSet(subclasses);
+            allSubclasses.put(jclass, subclasses);
+        }
+        return subclasses;
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
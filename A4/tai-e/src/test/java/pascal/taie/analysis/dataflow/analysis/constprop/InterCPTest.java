@@ -30,9 +30,21 @@ public class InterCPTest {
 
     private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
 
+    private static final String[] INPUT_CLASSES = {
+            "Example", "Reference", "Fibonacci", "MultiIntArgs"
+    };
+
     void test(String inputClass) {
+        test(inputClass, "");
+    }
+
+    /**
+     * @param options options appended to the default ones of the analysis
+     */
+    void test(String inputClass, String options) {
         Tests.test(inputClass, CLASS_PATH, InterConstantPropagation.ID,
-                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha"
+                "edge-refine:false;alias-aware:false" + options,
+                "-a", "cg=algorithm:cha"
                 // , "-a", "icfg=dump:true" // <-- uncomment this code if you want
                                             // to output ICFGs for the test cases
         );
@@ -57,4 +69,25 @@ public class InterCPTest {
     public void testMultiIntArgs() {
         test("MultiIntArgs");
     }
+
+    @Test
+    public void testSummary() {
+        for (String inputClass : INPUT_CLASSES) {
+            test(inputClass, ";summary:true");
+        }
+    }
+
+    @Test
+    public void testSummaryContextLimit() {
+        for (String inputClass : INPUT_CLASSES) {
+            test(inputClass, ";summary:true;summary-contexts:1");
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        for (String inputClass : INPUT_CLASSES) {
+            test(inputClass, ";parallel:true");
+        }
+    }
 }
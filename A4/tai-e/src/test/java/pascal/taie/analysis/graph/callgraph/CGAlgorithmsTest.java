@@ -0,0 +1,234 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.ResultProcessor;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the call graphs built by CHA, RTA and XTA: each algorithm
+ * should build the call graph given in its expected file
+ * ({@code <main>-<algorithm>-expected.txt}, except that CHA shares
+ * {@code <main>-cg-expected.txt} with {@code CHATest}) and be at least
+ * as precise as the previous one. Parallel CHA should build the same
+ * call graph as CHA, and the frozen call graph of CHA should answer
+ * the same queries as the unfrozen one. The sizes and building times
+ * of the call graphs are logged by {@link CallGraphBuilder}.
+ */
+public class CGAlgorithmsTest {
+
+    private static final Logger logger = LogManager.getLogger(CGAlgorithmsTest.class);
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    /**
+     * Number of timed builds of each call graph in {@link #testLibraryClient()}.
+     */
+    private static final int RUNS = 5;
+
+    private static CallGraph<Invoke, JMethod> buildCallGraph(
+            String main, String algorithm, String options) {
+        String expected = algorithm.equals("cha") ?
+                CallGraphBuilder.ID : algorithm;
+        String file = Paths.get(CLASS_PATH,
+                String.format("%s-%s-expected.txt", main, expected)).toString();
+        String processArg = String.format(
+                "%s=analyses:[%s];action:compare;file:%s",
+                ResultProcessor.ID, CallGraphBuilder.ID, file);
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", main,
+                "-a", CallGraphBuilder.ID + "=algorithm:" + algorithm + options,
+                "-a", processArg});
+        Set<String> mismatches = World.get().getResult(ResultProcessor.ID);
+        Assert.assertTrue("Mismatches of " + algorithm + " call graph:\n" +
+                        String.join("\n", mismatches),
+                mismatches.isEmpty());
+        return World.get().getResult(CallGraphBuilder.ID);
+    }
+
+    private static Set<String> edgesOf(CallGraph<Invoke, JMethod> callGraph) {
+        return callGraph.edges()
+                .map(Edge::toString)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the answers of given call graph to the queries about
+     * its methods and call sites.
+     */
+    private static Set<String> queriesOf(CallGraph<Invoke, JMethod> callGraph) {
+        Set<String> result = new TreeSet<>(edgesOf(callGraph));
+        callGraph.reachableMethods().forEach(method -> {
+            result.add(method + " callers: " +
+                    sorted(callGraph.getCallersOf(method)));
+            result.add(method + " callees: " +
+                    sorted(callGraph.getCalleesOfM(method)));
+            result.add(method + " preds: " +
+                    sorted(callGraph.getPredsOf(method)));
+            result.add(method + " in-edges: " +
+                    sorted(callGraph.getInEdgesOf(method)));
+            result.add(method + " out-edges: " +
+                    sorted(callGraph.getOutEdgesOf(method)));
+            callGraph.getCallSitesIn(method).forEach(callSite ->
+                    result.add(method + "/" + callSite + " callees: " +
+                            sorted(callGraph.getCalleesOf(callSite))));
+        });
+        return result;
+    }
+
+    private static String sorted(Collection<?> c) {
+        return c.stream()
+                .map(Object::toString)
+                .sorted()
+                .toList()
+                .toString();
+    }
+
+    /**
+     * Checks that given SCCs cover the reachable methods of given call
+     * graph, and that no SCC calls the SCCs after it.
+     */
+    private static void assertReverseTopological(
+            CallGraph<Invoke, JMethod> callGraph, List<List<JMethod>> sccs) {
+        Map<JMethod, Integer> sccIndexes = new HashMap<>();
+        for (int i = 0; i < sccs.size(); ++i) {
+            for (JMethod method : sccs.get(i)) {
+                sccIndexes.put(method, i);
+            }
+        }
+        Assert.assertEquals(callGraph.getNodes(), sccIndexes.keySet());
+        callGraph.edges().forEach(edge -> Assert.assertTrue(
+                "SCC of the callee should not come after the caller's: " + edge,
+                sccIndexes.get(edge.getCallee()) <=
+                        sccIndexes.get(callGraph.getContainerOf(edge.getCallSite()))));
+    }
+
+    private static void test(String main) {
+        CallGraph<Invoke, JMethod> chaGraph = buildCallGraph(main, "cha", "");
+        Set<String> cha = edgesOf(chaGraph);
+        Set<String> parallelCHA = edgesOf(
+                buildCallGraph(main, "cha", ";parallel:true"));
+        CallGraph<Invoke, JMethod> frozenCHA =
+                buildCallGraph(main, "cha", ";freeze:true");
+        Set<String> rta = edgesOf(buildCallGraph(main, "rta", ""));
+        Set<String> xta = edgesOf(buildCallGraph(main, "xta", ""));
+        Assert.assertEquals("Parallel CHA should build the same call graph",
+                cha, parallelCHA);
+        Assert.assertTrue("Frozen call graph should be a FrozenCallGraph",
+                frozenCHA instanceof FrozenCallGraph);
+        Assert.assertEquals("Frozen call graph should answer the same queries",
+                queriesOf(chaGraph), queriesOf(frozenCHA));
+        assertReverseTopological(chaGraph,
+                ((FrozenCallGraph<Invoke, JMethod>) frozenCHA).getSCCs());
+        Assert.assertTrue("RTA edges should be a subset of CHA edges",
+                cha.containsAll(rta));
+        Assert.assertTrue("XTA edges should be a subset of RTA edges",
+                rta.containsAll(xta));
+    }
+
+    @Test
+    public void testStaticCall() {
+        test("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        test("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() {
+        test("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        test("AbstractMethod");
+    }
+
+    @Test
+    public void testAllocation() {
+        test("Allocation");
+    }
+
+    /**
+     * Compares the algorithms on a client of the collections library,
+     * whose call graphs reach the library methods. The sizes of the call
+     * graphs and the median times of several builds after a warm-up
+     * build are logged.
+     */
+    @Test
+    public void testLibraryClient() {
+        Main.main(new String[]{"-pp", "-cp", CLASS_PATH, "-m", "LibraryClient",
+                "-a", CallGraphBuilder.ID + "=algorithm:cha"});
+        Map<String, Supplier<CGBuilder<Invoke, JMethod>>> builders =
+                new LinkedHashMap<>();
+        builders.put("cha", () -> new CHABuilder(false));
+        builders.put("rta", RTABuilder::new);
+        builders.put("xta", XTABuilder::new);
+        Map<String, Set<String>> edges = new LinkedHashMap<>();
+        builders.forEach((algorithm, builder) -> {
+            CallGraph<Invoke, JMethod> callGraph = builder.get().build();
+            long[] times = new long[RUNS];
+            for (int i = 0; i < RUNS; ++i) {
+                long start = System.nanoTime();
+                callGraph = builder.get().build();
+                times[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(times);
+            logger.info("{} call graph of LibraryClient: {} reachable methods, " +
+                            "{} edges, median build time {} ms",
+                    algorithm, callGraph.getNumberOfMethods(),
+                    callGraph.getNumberOfEdges(), times[RUNS / 2] / 1_000_000);
+            edges.put(algorithm, edgesOf(callGraph));
+        });
+        Set<String> cha = edges.get("cha");
+        Set<String> rta = edges.get("rta");
+        Set<String> xta = edges.get("xta");
+        Assert.assertTrue("RTA edges should be a subset of CHA edges",
+                cha.containsAll(rta));
+        Assert.assertTrue("XTA edges should be a subset of RTA edges",
+                rta.containsAll(xta));
+        Assert.assertTrue("RTA should prune the library edges of CHA",
+                rta.size() < cha.size());
+    }
+}
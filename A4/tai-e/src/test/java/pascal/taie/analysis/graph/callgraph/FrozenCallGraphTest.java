@@ -0,0 +1,158 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that {@link FrozenCallGraph} answers the same queries
+ * as the call graph it is built from.
+ */
+public class FrozenCallGraphTest {
+
+    /**
+     * Call graph whose methods and call sites are strings.
+     */
+    private static class StringCallGraph extends AbstractCallGraph<String, String> {
+
+        private void addMethod(String method, int callSites) {
+            reachableMethods.add(method);
+            for (int i = 0; i < callSites; ++i) {
+                String callSite = method + "#" + i;
+                callSiteToContainer.put(callSite, method);
+                callSitesIn.put(method, callSite);
+            }
+        }
+
+        private void addEdge(String callSite, String callee) {
+            Edge<String, String> edge = new Edge<>(CallKind.VIRTUAL, callSite, callee);
+            if (callSiteToEdges.put(callSite, edge)) {
+                calleeToEdges.put(callee, edge);
+            }
+        }
+
+        @Override
+        public boolean isRelevant(Stmt stmt) {
+            return false;
+        }
+
+        @Override
+        public Set<String> getResult(Stmt stmt) {
+            return Set.of();
+        }
+    }
+
+    private static StringCallGraph randomCallGraph(Random random) {
+        StringCallGraph callGraph = new StringCallGraph();
+        int reachable = 1 + random.nextInt(20);
+        for (int m = 0; m < reachable; ++m) {
+            callGraph.addMethod("m" + m, random.nextInt(4));
+        }
+        callGraph.entryMethods.add("m0");
+        // callees may be unreachable methods, i.e., "m" + reachable and beyond
+        List<String> callSites = callGraph.callSiteToContainer.keySet()
+                .stream()
+                .toList();
+        for (String callSite : callSites) {
+            for (int i = random.nextInt(4); i > 0; --i) {
+                callGraph.addEdge(callSite, "m" + random.nextInt(reachable + 3));
+            }
+        }
+        return callGraph;
+    }
+
+    private static <T> void assertSameSet(Set<T> expected, Set<T> actual) {
+        Assert.assertEquals(Set.copyOf(expected), Set.copyOf(actual));
+        Assert.assertEquals(expected.size(), actual.size());
+        expected.forEach(e -> Assert.assertTrue(actual.contains(e)));
+    }
+
+    private static void check(StringCallGraph expected) {
+        FrozenCallGraph<String, String> frozen = new FrozenCallGraph<>(expected);
+        Assert.assertEquals(expected.getNumberOfMethods(), frozen.getNumberOfMethods());
+        Assert.assertEquals(expected.getNumberOfEdges(), frozen.getNumberOfEdges());
+        assertSameSet(expected.edges().collect(Collectors.toSet()),
+                frozen.edges().collect(Collectors.toSet()));
+        assertSameSet(expected.entryMethods().collect(Collectors.toSet()),
+                frozen.entryMethods().collect(Collectors.toSet()));
+        assertSameSet(expected.getNodes(), frozen.getNodes());
+        for (int m = 0; m < frozen.getNumberOfIndexedMethods(); ++m) {
+            String method = frozen.getMethod(m);
+            Assert.assertEquals(m, frozen.getIndexOf(method));
+            Assert.assertEquals(expected.contains(method), frozen.contains(method));
+            assertSameSet(expected.getCallersOf(method), frozen.getCallersOf(method));
+            assertSameSet(expected.getCalleesOfM(method), frozen.getCalleesOfM(method));
+            assertSameSet(expected.getCallSitesIn(method), frozen.getCallSitesIn(method));
+            assertSameSet(expected.getPredsOf(method), frozen.getPredsOf(method));
+            assertSameSet(expected.getSuccsOf(method), frozen.getSuccsOf(method));
+            assertSameSet(expected.getInEdgesOf(method), frozen.getInEdgesOf(method));
+            assertSameSet(expected.getOutEdgesOf(method), frozen.getOutEdgesOf(method));
+            assertSameSet(expected.edgesInTo(method).collect(Collectors.toSet()),
+                    frozen.edgesInTo(method).collect(Collectors.toSet()));
+            Assert.assertEquals(expected.getSuccsOf(method).size(),
+                    frozen.getNumberOfSuccsOf(m));
+            for (int i = 0; i < frozen.getNumberOfSuccsOf(m); ++i) {
+                Assert.assertTrue(expected.hasEdge(method,
+                        frozen.getMethod(frozen.getSuccOf(m, i))));
+            }
+            Assert.assertEquals(expected.getPredsOf(method).size(),
+                    frozen.getNumberOfPredsOf(m));
+            for (int i = 0; i < frozen.getNumberOfPredsOf(m); ++i) {
+                Assert.assertTrue(expected.hasEdge(
+                        frozen.getMethod(frozen.getPredOf(m, i)), method));
+            }
+            for (String callSite : expected.getCallSitesIn(method)) {
+                Assert.assertEquals(method, frozen.getContainerOf(callSite));
+                assertSameSet(expected.getCalleesOf(callSite),
+                        frozen.getCalleesOf(callSite));
+                assertSameSet(expected.edgesOutOf(callSite).collect(Collectors.toSet()),
+                        frozen.edgesOutOf(callSite).collect(Collectors.toSet()));
+            }
+        }
+        Assert.assertEquals(-1, frozen.getIndexOf("absent"));
+        Assert.assertTrue(frozen.getCallersOf("absent").isEmpty());
+        Assert.assertTrue(frozen.getCalleesOf("absent#0").isEmpty());
+        Assert.assertFalse(frozen.contains("absent"));
+    }
+
+    @Test
+    public void testEmpty() {
+        check(new StringCallGraph());
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(0);
+        for (int i = 0; i < 500; ++i) {
+            check(randomCallGraph(random));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+public class Allocation {
+
+    public static void main(String[] args) {
+        Shape s = new Circle();
+        s.draw();
+        create();
+    }
+
+    static void create() {
+        Shape s = new Square();
+    }
+}
+
+class Shape {
+    void draw() {
+    }
+}
+
+class Circle extends Shape {
+    void draw() {
+    }
+}
+
+class Square extends Shape {
+    void draw() {
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class LibraryClient {
+
+    public static void main(String[] args) {
+        List<Account> accounts = new ArrayList<>();
+        accounts.add(new Savings());
+        accounts.add(new Checking());
+        Map<String, Account> byName = new HashMap<>();
+        StringBuilder names = new StringBuilder();
+        Iterator<Account> it = accounts.iterator();
+        while (it.hasNext()) {
+            Account account = it.next();
+            account.update();
+            byName.put(account.name(), account);
+            names.append(account.name());
+        }
+        System.out.println(names.toString());
+    }
+}
+
+abstract class Account {
+
+    abstract void update();
+
+    abstract String name();
+}
+
+class Savings extends Account {
+
+    void update() {
+    }
+
+    String name() {
+        return "savings";
+    }
+}
+
+class Checking extends Account {
+
+    void update() {
+    }
+
+    String name() {
+        return "checking";
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.analysis.pta.core.heap.Obj;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Points-to set represented as a sparse bitmap over the indexes which
+ * the pointer flow graph gives to the objects.
+ * <p>
+ * The bitmap only stores its non-zero 64-bit words, together with
+ * the positions of the words (keys) in ascending order, so that the set
+ * takes little memory when its objects are scattered over a large range
+ * of indexes. Adding a bitmap set to another one merges their words in
+ * one pass, instead of hashing the objects one by one.
+ *
+ * @see PointerFlowGraph#getObjIndex(Obj)
+ */
+class BitmapPointsToSet extends PointsToSet {
+
+    private static final int[] EMPTY_KEYS = {};
+
+    private static final long[] EMPTY_WORDS = {};
+
+    private final PointerFlowGraph pointerFlowGraph;
+
+    /**
+     * Positions of the non-zero words in the bitmap, in ascending order.
+     */
+    private int[] keys = EMPTY_KEYS;
+
+    private long[] words = EMPTY_WORDS;
+
+    /**
+     * Number of the non-zero words.
+     */
+    private int length;
+
+    /**
+     * Number of the objects in this set.
+     */
+    private int size;
+
+    BitmapPointsToSet(PointerFlowGraph pointerFlowGraph) {
+        super((Void) null);
+        this.pointerFlowGraph = pointerFlowGraph;
+    }
+
+    private BitmapPointsToSet(PointerFlowGraph pointerFlowGraph,
+                              int[] keys, long[] words, int size) {
+        this(pointerFlowGraph);
+        this.keys = keys;
+        this.words = words;
+        this.length = keys.length;
+        this.size = size;
+    }
+
+    @Override
+    boolean addObject(Obj obj) {
+        int index = pointerFlowGraph.getObjIndex(obj);
+        long bit = 1L << index;
+        int i = Arrays.binarySearch(keys, 0, length, index >>> 6);
+        if (i >= 0) {
+            if ((words[i] & bit) != 0) {
+                return false;
+            }
+            words[i] |= bit;
+        } else {
+            insertWord(-i - 1, index >>> 6, bit);
+        }
+        ++size;
+        return true;
+    }
+
+    private void insertWord(int i, int key, long word) {
+        if (length == keys.length) {
+            int capacity = Math.max(2, length + (length >> 1));
+            keys = Arrays.copyOf(keys, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+        System.arraycopy(keys, i, keys, i + 1, length - i);
+        System.arraycopy(words, i, words, i + 1, length - i);
+        keys[i] = key;
+        words[i] = word;
+        ++length;
+    }
+
+    @Override
+    PointsToSet addAllDiff(PointsToSet pts) {
+        if (!(pts instanceof BitmapPointsToSet other)) {
+            PointsToSet diff = new BitmapPointsToSet(pointerFlowGraph);
+            for (Obj obj : pts) {
+                if (addObject(obj)) {
+                    diff.addObject(obj);
+                }
+            }
+            return diff;
+        }
+        // counts the keys which are only in other set, and
+        // the words of other set which contain new objects
+        int newKeys = 0, diffLength = 0;
+        for (int i = 0, j = 0; j < other.length; ) {
+            if (i < length && keys[i] < other.keys[j]) {
+                ++i;
+            } else if (i < length && keys[i] == other.keys[j]) {
+                if ((other.words[j] & ~words[i]) != 0) {
+                    ++diffLength;
+                }
+                ++i;
+                ++j;
+            } else {
+                ++newKeys;
+                ++diffLength;
+                ++j;
+            }
+        }
+        if (diffLength == 0) {
+            return new BitmapPointsToSet(pointerFlowGraph);
+        }
+        int newLength = length + newKeys;
+        if (newLength > keys.length) {
+            keys = Arrays.copyOf(keys, newLength);
+            words = Arrays.copyOf(words, newLength);
+        }
+        int[] diffKeys = new int[diffLength];
+        long[] diffWords = new long[diffLength];
+        // merges from the back, so that the words of this set
+        // can be moved in place
+        int added = 0;
+        for (int i = length - 1, j = other.length - 1, k = newLength - 1,
+             d = diffLength - 1; j >= 0; --k) {
+            if (i >= 0 && keys[i] > other.keys[j]) {
+                keys[k] = keys[i];
+                words[k] = words[i];
+                --i;
+                continue;
+            }
+            long delta;
+            if (i >= 0 && keys[i] == other.keys[j]) {
+                delta = other.words[j] & ~words[i];
+                words[k] = words[i] | delta;
+                --i;
+            } else {
+                delta = other.words[j];
+                words[k] = delta;
+            }
+            keys[k] = other.keys[j];
+            if (delta != 0) {
+                added += Long.bitCount(delta);
+                diffKeys[d] = other.keys[j];
+                diffWords[d] = delta;
+                --d;
+            }
+            --j;
+        }
+        // the remaining words of this set are already in place
+        length = newLength;
+        size += added;
+        return new BitmapPointsToSet(pointerFlowGraph, diffKeys, diffWords, added);
+    }
+
+    @Override
+    boolean contains(Obj obj) {
+        int index = pointerFlowGraph.lookupObjIndex(obj);
+        if (index < 0) {
+            return false;
+        }
+        int i = Arrays.binarySearch(keys, 0, length, index >>> 6);
+        return i >= 0 && (words[i] & (1L << index)) != 0;
+    }
+
+    @Override
+    PointsToSet copy() {
+        return new BitmapPointsToSet(pointerFlowGraph,
+                Arrays.copyOf(keys, length), Arrays.copyOf(words, length), size);
+    }
+
+    @Override
+    PointsToSet intersect(PointsToSet pts) {
+        BitmapPointsToSet result = new BitmapPointsToSet(pointerFlowGraph);
+        if (!(pts instanceof BitmapPointsToSet other)) {
+            for (Obj obj : this) {
+                if (pts.contains(obj)) {
+                    result.addObject(obj);
+                }
+            }
+            return result;
+        }
+        for (int i = 0, j = 0; i < length && j < other.length; ) {
+            if (keys[i] < other.keys[j]) {
+                ++i;
+            } else if (keys[i] > other.keys[j]) {
+                ++j;
+            } else {
+                long word = words[i] & other.words[j];
+                if (word != 0) {
+                    result.insertWord(result.length, keys[i], word);
+                    result.size += Long.bitCount(word);
+                }
+                ++i;
+                ++j;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    Stream<Obj> objects() {
+        return getObjects().stream();
+    }
+
+    @Override
+    Set<Obj> getObjects() {
+        return new ObjectSet();
+    }
+
+    @Override
+    public Iterator<Obj> iterator() {
+        return new Iterator<>() {
+
+            private int i = 0;
+
+            private long word = length > 0 ? words[0] : 0;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0 && i + 1 < length) {
+                    word = words[++i];
+                }
+                return word != 0;
+            }
+
+            @Override
+            public Obj next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return pointerFlowGraph.getObj((keys[i] << 6) | bit);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return getObjects().toString();
+    }
+
+    /**
+     * Unmodifiable view of the objects in this set.
+     */
+    private class ObjectSet extends AbstractSet<Obj> {
+
+        @Override
+        public Iterator<Obj> iterator() {
+            return BitmapPointsToSet.this.iterator();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Obj obj && BitmapPointsToSet.this.contains(obj);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline variable substitution by hash-based value numbering (HVN).
+ * <p>
+ * Each variable of a method is labeled with the sources of the objects
+ * which may flow into it within the method: the allocation sites which
+ * are assigned to it, and the variable itself if it receives objects
+ * from any other statement or from the callers, e.g., parameters, results
+ * of calls and loaded fields. A copy propagates the labels of its right-hand
+ * side to its left-hand side. Variables with the same labels are assigned
+ * from exactly the same sources, thus they always point to the same
+ * objects, and the solver can merge their pointers before propagation.
+ */
+class HashValueNumbering {
+
+    private HashValueNumbering() {
+    }
+
+    /**
+     * @return the groups of pointer-equivalent variables of given IR.
+     * Each group consists of at least two variables.
+     */
+    static Collection<List<Var>> getEquivalentVars(IR ir) {
+        Map<Var, Set<Object>> labels = Maps.newMap();
+        MultiMap<Var, Var> copies = Maps.newMultiMap();
+        if (ir.getThis() != null) {
+            label(labels, ir.getThis(), ir.getThis());
+        }
+        ir.getParams().forEach(param -> label(labels, param, param));
+        for (Stmt stmt : ir.getStmts()) {
+            if (stmt instanceof New newStmt) {
+                label(labels, newStmt.getLValue(), newStmt);
+            } else if (stmt instanceof Copy copy) {
+                copies.put(copy.getRValue(), copy.getLValue());
+            } else {
+                stmt.getDef()
+                        .filter(def -> def instanceof Var)
+                        .map(def -> (Var) def)
+                        .ifPresent(var -> label(labels, var, var));
+            }
+        }
+        // propagates the labels along the copies until a fixed point
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<Var, Var> copy : copies.entrySet()) {
+                Set<Object> from = labels.get(copy.getKey());
+                if (from != null && labels.computeIfAbsent(
+                        copy.getValue(), unused -> Sets.newHybridSet())
+                        .addAll(from)) {
+                    changed = true;
+                }
+            }
+        }
+        Map<Set<Object>, List<Var>> valueNumbers = Maps.newMap();
+        labels.forEach((var, label) -> valueNumbers
+                .computeIfAbsent(label, unused -> new ArrayList<>())
+                .add(var));
+        valueNumbers.values().removeIf(vars -> vars.size() < 2);
+        return valueNumbers.values();
+    }
+
+    private static void label(Map<Var, Set<Object>> labels,
+                              Var var, Object label) {
+        labels.computeIfAbsent(var, unused -> Sets.newHybridSet()).add(label);
+    }
+}
@@ -29,9 +29,21 @@ package pascal.taie.analysis.pta.ci;
  */
 abstract class Pointer {
 
-    private final PointsToSet pointsToSet = new PointsToSet();
+    /**
+     * Points-to set of this pointer, which is given by the PFG
+     * when the pointer is added to it.
+     */
+    private PointsToSet pointsToSet;
 
     PointsToSet getPointsToSet() {
         return pointsToSet;
     }
+
+    /**
+     * Sets the points-to set of this pointer. This is used to let
+     * the pointers in a cycle of PFG share one points-to set.
+     */
+    void setPointsToSet(PointsToSet pointsToSet) {
+        this.pointsToSet = pointsToSet;
+    }
 }
@@ -28,46 +28,207 @@ import pascal.taie.language.classes.JField;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
 import pascal.taie.util.collection.Sets;
-import pascal.taie.util.collection.TwoKeyMap;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 /**
  * Represents pointer flow graph in pointer analysis.
+ * <p>
+ * A concurrent PFG allows its pointers and edges to be added by several
+ * threads at the same time, while its cycles are collapsed and its
+ * pointers are merged by one thread when no pointers or edges are added.
+ * Objects are also only given indexes by that thread.
  */
 class PointerFlowGraph {
 
+    /**
+     * Whether pointers and edges can be added concurrently.
+     */
+    private final boolean concurrent;
+
     /**
      * Set of all pointer in this PFG.
      */
-    private final Set<Pointer> pointers = Sets.newSet();
+    private final Set<Pointer> pointers;
 
     /**
      * Map from Variable to Var node.
      */
-    private final Map<Var, VarPtr> varPtrs = Maps.newMap();
+    private final Map<Var, VarPtr> varPtrs;
 
     /**
      * Map from JField to StaticField node.
      */
-    private final Map<JField, StaticField> staticFields = Maps.newMap();
+    private final Map<JField, StaticField> staticFields;
 
     /**
      * Map from (Obj, Field) to InstanceField node.
      */
-    private final TwoKeyMap<Obj, JField, InstanceField> instanceFields = Maps.newTwoKeyMap();
+    private final Map<Obj, Map<JField, InstanceField>> instanceFields;
 
     /**
      * Map from Obj (array) to ArrayIndex node.
      */
-    private final Map<Obj, ArrayIndex> arrayIndexes = Maps.newMap();
+    private final Map<Obj, ArrayIndex> arrayIndexes;
 
     /**
      * Map from a pointer (node) to its successors in PFG.
      */
-    private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
+    private final Map<Pointer, Set<Pointer>> successors;
+
+    /**
+     * Number of edges in this PFG.
+     */
+    private final AtomicInteger edges = new AtomicInteger();
+
+    /**
+     * Default value of {@link #collapseThreshold}.
+     */
+    static final int DEFAULT_COLLAPSE_THRESHOLD = 1024;
+
+    /**
+     * Minimum number of edges added to this PFG before cycles are
+     * detected again.
+     */
+    private final int collapseThreshold;
+
+    /**
+     * Map from a pointer which has been merged into a cycle to
+     * the representative of the cycle.
+     */
+    private final Map<Pointer, Pointer> representatives = Maps.newMap();
+
+    /**
+     * Map from a representative to all pointers merged into it,
+     * including itself.
+     */
+    private final MultiMap<Pointer, Pointer> members = Maps.newMultiMap();
+
+    /**
+     * Number of edges added since cycles were detected last time.
+     */
+    private final AtomicInteger newEdges = new AtomicInteger();
+
+    /**
+     * Whether the points-to sets of this PFG are represented as
+     * bitmaps over the indexes of the objects.
+     */
+    private final boolean bitmapPointsToSet;
+
+    /**
+     * Map from an object to its index, i.e., the position of
+     * the object in {@link #objs}.
+     */
+    private final Map<Obj, Integer> objIndexes = Maps.newMap();
+
+    /**
+     * Objects in the order of their indexes.
+     */
+    private final List<Obj> objs = new ArrayList<>();
+
+    /**
+     * @param collapseThreshold minimum number of edges added to this PFG
+     *                          before cycles are detected again; cycles
+     *                          are also not detected before a quarter of
+     *                          the edges of this PFG are new.
+     * @param bitmapPointsToSet whether the points-to sets are represented
+     *                          as bitmaps over the indexes of the objects.
+     */
+    PointerFlowGraph(int collapseThreshold, boolean bitmapPointsToSet) {
+        this(collapseThreshold, bitmapPointsToSet, false);
+    }
+
+    /**
+     * @param concurrent whether pointers and edges can be added
+     *                   concurrently by several threads.
+     * @see #PointerFlowGraph(int, boolean)
+     */
+    PointerFlowGraph(int collapseThreshold, boolean bitmapPointsToSet,
+                     boolean concurrent) {
+        this.collapseThreshold = collapseThreshold;
+        this.bitmapPointsToSet = bitmapPointsToSet;
+        this.concurrent = concurrent;
+        pointers = concurrent ? Sets.newConcurrentSet() : Sets.newSet();
+        varPtrs = newMap();
+        staticFields = newMap();
+        instanceFields = newMap();
+        arrayIndexes = newMap();
+        successors = newMap();
+    }
+
+    private <K, V> Map<K, V> newMap() {
+        return concurrent ? Maps.newConcurrentMap() : Maps.newMap();
+    }
+
+    /**
+     * @return an empty points-to set in the representation of this PFG.
+     */
+    PointsToSet makePointsToSet() {
+        return bitmapPointsToSet ?
+                new BitmapPointsToSet(this) : new PointsToSet();
+    }
+
+    /**
+     * @return a points-to set which contains given object,
+     * in the representation of this PFG.
+     */
+    PointsToSet makePointsToSet(Obj obj) {
+        PointsToSet pts = makePointsToSet();
+        pts.addObject(obj);
+        return pts;
+    }
+
+    /**
+     * @return the index of given object, which is given to the object
+     * when it is first seen. The indexes are dense, i.e., they are
+     * 0, 1, 2, ... in the order the objects are seen.
+     * <p>
+     * The objects are first seen when their allocation sites are
+     * processed, so the parallel solver only looks up the indexes.
+     */
+    int getObjIndex(Obj obj) {
+        Integer index = objIndexes.get(obj);
+        if (index == null) {
+            index = objs.size();
+            objIndexes.put(obj, index);
+            objs.add(obj);
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of given object, or -1 if the object
+     * has not been given an index.
+     */
+    int lookupObjIndex(Obj obj) {
+        return objIndexes.getOrDefault(obj, -1);
+    }
+
+    /**
+     * @return the object of given index.
+     */
+    Obj getObj(int index) {
+        return objs.get(index);
+    }
+
+    /**
+     * Adds a new pointer to this PFG, and gives it
+     * an empty points-to set.
+     */
+    private <P extends Pointer> P addPointer(P pointer) {
+        pointer.setPointsToSet(makePointsToSet());
+        pointers.add(pointer);
+        return pointer;
+    }
 
     /**
      * Returns all pointers in this PFG.
@@ -80,22 +241,15 @@ class PointerFlowGraph {
      * @return the corresponding Var node for the given variable.
      */
     VarPtr getVarPtr(Var var) {
-        return varPtrs.computeIfAbsent(var, v -> {
-            VarPtr varPtr = new VarPtr(v);
-            pointers.add(varPtr);
-            return varPtr;
-        });
+        return varPtrs.computeIfAbsent(var, v -> addPointer(new VarPtr(v)));
     }
 
     /**
      * @return the corresponding StaticField node for the given static field.
      */
     StaticField getStaticField(JField field) {
-        return staticFields.computeIfAbsent(field, f -> {
-            StaticField staticField = new StaticField(f);
-            pointers.add(staticField);
-            return staticField;
-        });
+        return staticFields.computeIfAbsent(field,
+                f -> addPointer(new StaticField(f)));
     }
 
     /**
@@ -103,38 +257,238 @@ class PointerFlowGraph {
      * and instance field.
      */
     InstanceField getInstanceField(Obj base, JField field) {
-        return instanceFields.computeIfAbsent(base, field, (b, f) -> {
-                InstanceField instanceField = new InstanceField(b, f);
-                pointers.add(instanceField);
-                return instanceField;
-            });
+        return instanceFields.computeIfAbsent(base, unused -> newMap())
+                .computeIfAbsent(field, f -> addPointer(new InstanceField(base, f)));
     }
 
     /**
      * @return the corresponding ArrayIndex node for the given array object.
      */
     ArrayIndex getArrayIndex(Obj array) {
-        return arrayIndexes.computeIfAbsent(array, a -> {
-            ArrayIndex arrayIndex = new ArrayIndex(a);
-            pointers.add(arrayIndex);
-            return arrayIndex;
-        });
+        return arrayIndexes.computeIfAbsent(array,
+                a -> addPointer(new ArrayIndex(a)));
     }
 
     /**
-     * Adds an edge (source -> target) to this PFG.
+     * Adds an edge (source -> target) to this PFG. The edge is added
+     * between the representatives of the pointers, and no edge is added
+     * if the pointers have been merged into the same cycle.
      *
      * @return true if this PFG changed as a result of the call,
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        source = getRepresentative(source);
+        target = getRepresentative(target);
+        if (source != target && putEdge(source, target)) {
+            newEdges.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean putEdge(Pointer source, Pointer target) {
+        if (successors.computeIfAbsent(source, unused -> concurrent ?
+                Sets.newConcurrentSet() : Sets.newHybridSet()).add(target)) {
+            edges.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the edges from given pointer.
+     */
+    private void removeEdgesFrom(Pointer source) {
+        Set<Pointer> succs = successors.remove(source);
+        if (succs != null) {
+            edges.addAndGet(-succs.size());
+        }
     }
 
     /**
      * @return successors of given pointer in the PFG.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        return successors.getOrDefault(getRepresentative(pointer), Set.of());
+    }
+
+    /**
+     * @return the representative of the cycle which given pointer has been
+     * merged into, or the pointer itself if it is not in any cycle.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        return representatives.getOrDefault(pointer, pointer);
+    }
+
+    /**
+     * @return the pointers which have been merged into the same cycle
+     * as given pointer, including the pointer itself.
+     */
+    Set<Pointer> getMembersOf(Pointer pointer) {
+        Pointer rep = getRepresentative(pointer);
+        Set<Pointer> merged = members.get(rep);
+        return merged.isEmpty() ? Set.of(rep) : merged;
+    }
+
+    /**
+     * Collapses the cycles of this PFG if enough edges have been added
+     * since the last time. The pointers of a cycle always end up with
+     * the same points-to set, so each cycle is merged into one
+     * representative, and its pointers share one points-to set
+     * from then on.
+     *
+     * @see #mergePointers(List, BiConsumer)
+     */
+    void collapseCycles(BiConsumer<Pointer, PointsToSet> pending) {
+        if (newEdges.get() < Math.max(collapseThreshold, edges.get() >> 2)) {
+            return;
+        }
+        newEdges.set(0);
+        List<List<Pointer>> cycles = findCycles();
+        if (cycles.isEmpty()) {
+            return;
+        }
+        cycles.forEach(cycle -> mergePointers(cycle, pending));
+        // redirects the edges to the representatives
+        List<Map.Entry<Pointer, Set<Pointer>>> oldEdges =
+                new ArrayList<>(successors.entrySet());
+        successors.clear();
+        edges.set(0);
+        for (Map.Entry<Pointer, Set<Pointer>> edge : oldEdges) {
+            Pointer source = getRepresentative(edge.getKey());
+            for (Pointer succ : edge.getValue()) {
+                Pointer target = getRepresentative(succ);
+                if (source != target) {
+                    putEdge(source, target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges given pointers into one representative, so that they share
+     * one points-to set from then on. The pointers must always end up with
+     * the same points-to set, e.g., the pointers in a cycle of this PFG.
+     * <p>
+     * The shared set only holds the objects which were pointed to by all
+     * given pointers, as those objects have been processed for every
+     * pointer. The previous points-to set of each pointer is passed
+     * to {@code pending} together with the representative, so that
+     * the solver propagates the other objects to all the pointers.
+     * The successors of the pointers are moved to the representative;
+     * the edges which target the pointers are left as they are, since
+     * propagating to any of the pointers reaches the representative.
+     * Cycle detection follows such edges to the representative, and
+     * {@link #collapseCycles(BiConsumer)} redirects them.
+     */
+    void mergePointers(List<Pointer> pointers,
+                       BiConsumer<Pointer, PointsToSet> pending) {
+        Set<Pointer> reps = Sets.newHybridSet();
+        pointers.forEach(pointer -> reps.add(getRepresentative(pointer)));
+        if (reps.size() < 2) {
+            return;
+        }
+        Pointer rep = getRepresentative(pointers.get(0));
+        PointsToSet shared = rep.getPointsToSet();
+        List<Pointer> merged = new ArrayList<>();
+        for (Pointer pointer : reps) {
+            shared = shared.intersect(pointer.getPointsToSet());
+            pending.accept(rep, pointer.getPointsToSet());
+            merged.addAll(getMembersOf(pointer));
+            members.removeAll(pointer);
+            if (pointer != rep) {
+                for (Pointer succ : successors.getOrDefault(pointer, Set.of())) {
+                    putEdge(rep, succ);
+                }
+                removeEdgesFrom(pointer);
+            }
+        }
+        for (Pointer pointer : merged) {
+            if (pointer != rep) {
+                representatives.put(pointer, rep);
+            }
+            members.put(rep, pointer);
+            pointer.setPointsToSet(shared);
+        }
+        Set<Pointer> repSuccs = successors.get(rep);
+        if (repSuccs != null) {
+            for (Pointer pointer : merged) {
+                if (repSuccs.remove(pointer)) {
+                    edges.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the strongly connected components of this PFG which consist of
+     * more than one pointer, by Tarjan's algorithm. The traversal keeps
+     * its own stack, as the PFG can be too deep for recursion. Edges are
+     * followed to the representatives of their targets, as the edges added
+     * before {@link #mergePointers(List, BiConsumer)} may still target
+     * merged pointers.
+     */
+    private List<List<Pointer>> findCycles() {
+        Map<Pointer, Integer> indexes = Maps.newMap();
+        Map<Pointer, Integer> lowLinks = Maps.newMap();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        Set<Pointer> onStack = Sets.newSet();
+        Deque<Pointer> path = new ArrayDeque<>();
+        Deque<Iterator<Pointer>> succIters = new ArrayDeque<>();
+        List<List<Pointer>> cycles = new ArrayList<>();
+        for (Pointer root : successors.keySet()) {
+            if (indexes.containsKey(root)) {
+                continue;
+            }
+            Pointer next = root;
+            while (next != null || !path.isEmpty()) {
+                if (next != null) {
+                    indexes.put(next, indexes.size());
+                    lowLinks.put(next, indexes.get(next));
+                    stack.push(next);
+                    onStack.add(next);
+                    path.push(next);
+                    succIters.push(successors.getOrDefault(next, Set.of()).iterator());
+                    next = null;
+                    continue;
+                }
+                Pointer node = path.peek();
+                Iterator<Pointer> succIter = succIters.peek();
+                if (succIter.hasNext()) {
+                    Pointer succ = getRepresentative(succIter.next());
+                    if (succ == node) {
+                        continue;
+                    }
+                    if (!indexes.containsKey(succ)) {
+                        next = succ;
+                    } else if (onStack.contains(succ)) {
+                        lowLinks.put(node, Math.min(lowLinks.get(node),
+                                indexes.get(succ)));
+                    }
+                    continue;
+                }
+                path.pop();
+                succIters.pop();
+                if (!path.isEmpty()) {
+                    Pointer parent = path.peek();
+                    lowLinks.put(parent, Math.min(lowLinks.get(parent),
+                            lowLinks.get(node)));
+                }
+                if (lowLinks.get(node).equals(indexes.get(node))) {
+                    List<Pointer> scc = new ArrayList<>();
+                    Pointer pointer;
+                    do {
+                        pointer = stack.pop();
+                        onStack.remove(pointer);
+                        scc.add(pointer);
+                    } while (pointer != node);
+                    if (scc.size() > 1) {
+                        cycles.add(scc);
+                    }
+                }
+            }
+        }
+        return cycles;
     }
 }
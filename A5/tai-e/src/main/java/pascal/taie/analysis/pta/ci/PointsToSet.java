@@ -32,21 +32,33 @@ import java.util.stream.Stream;
 
 /**
  * Represents of points-to sets.
+ *
+ * @see BitmapPointsToSet
  */
 class PointsToSet implements Iterable<Obj> {
 
-    private final Set<Obj> set = Sets.newHybridSet();
+    private final Set<Obj> set;
 
     /**
      * Constructs an empty points-to set.
      */
     PointsToSet() {
+        set = Sets.newHybridSet();
+    }
+
+    /**
+     * Constructs a points-to set without its own storage, for the
+     * subclasses which keep the objects in another way.
+     */
+    PointsToSet(Void noStorage) {
+        set = Collections.emptySet();
     }
 
     /**
      * Constructs a points-to set containing one object.
      */
     PointsToSet(Obj obj) {
+        this();
         addObject(obj);
     }
 
@@ -60,6 +72,22 @@ class PointsToSet implements Iterable<Obj> {
         return set.add(obj);
     }
 
+    /**
+     * Adds all objects in given pts to this set.
+     *
+     * @return a new set which contains the objects that are
+     * in given pts but were not in this set.
+     */
+    PointsToSet addAllDiff(PointsToSet pts) {
+        PointsToSet diff = new PointsToSet();
+        for (Obj obj : pts) {
+            if (addObject(obj)) {
+                diff.addObject(obj);
+            }
+        }
+        return diff;
+    }
+
     /**
      * @return true if this points-to set contains the given object, otherwise false.
      */
@@ -67,6 +95,29 @@ class PointsToSet implements Iterable<Obj> {
         return set.contains(obj);
     }
 
+    /**
+     * @return a new set which contains the same objects as this set.
+     */
+    PointsToSet copy() {
+        PointsToSet copy = new PointsToSet();
+        copy.set.addAll(set);
+        return copy;
+    }
+
+    /**
+     * @return a new set which contains the objects that are
+     * in both this set and given pts.
+     */
+    PointsToSet intersect(PointsToSet pts) {
+        PointsToSet result = new PointsToSet();
+        for (Obj obj : set) {
+            if (pts.contains(obj)) {
+                result.addObject(obj);
+            }
+        }
+        return result;
+    }
+
     /**
      * @return whether this set if empty.
      */
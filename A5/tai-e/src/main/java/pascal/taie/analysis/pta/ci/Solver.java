@@ -31,6 +31,7 @@ import pascal.taie.analysis.graph.callgraph.DefaultCallGraph;
 import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.proginfo.MethodRef;
@@ -40,15 +41,52 @@ import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.AnalysisException;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 class Solver {
 
     private static final Logger logger = LogManager.getLogger(Solver.class);
 
+    /**
+     * Minimum number of pointers in a round to process them concurrently.
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    /**
+     * Number of partitions of the work-list per thread in parallel mode.
+     * Having more partitions than threads balances the load of the threads.
+     */
+    private static final int PARTITIONS_PER_THREAD = 4;
+
     private final HeapModel heapModel;
 
+    /**
+     * Whether to merge pointer-equivalent variables of each reachable
+     * method before processing its statements.
+     */
+    private final boolean hvn;
+
+    /**
+     * Whether to process the pointers in the work-list concurrently.
+     */
+    private final boolean parallel;
+
+    /**
+     * Minimum number of new PFG edges before cycles are detected again.
+     */
+    private final int collapseThreshold;
+
+    /**
+     * Whether to represent the points-to sets as bitmaps over
+     * the indexes of the objects.
+     */
+    private final boolean bitmapPointsToSet;
+
     private DefaultCallGraph callGraph;
 
     private PointerFlowGraph pointerFlowGraph;
@@ -57,10 +95,29 @@ class Solver {
 
     private StmtProcessor stmtProcessor;
 
+    /**
+     * Applies the changes made by processing statements right away.
+     */
+    private Changes directChanges;
+
     private ClassHierarchy hierarchy;
 
-    Solver(HeapModel heapModel) {
+    Solver(AnalysisOptions options, HeapModel heapModel) {
         this.heapModel = heapModel;
+        this.hvn = options.getBooleanOrDefault("hvn", false);
+        this.parallel = options.getBooleanOrDefault("parallel", false);
+        this.collapseThreshold = getCollapseThreshold(options);
+        this.bitmapPointsToSet = options.getBooleanOrDefault("bitmap-pts", false);
+    }
+
+    /**
+     * @return the value of option "collapse-threshold", i.e., the minimum
+     * number of new PFG edges before cycles are detected again, or
+     * {@link PointerFlowGraph#DEFAULT_COLLAPSE_THRESHOLD} if it is not given.
+     */
+    private static int getCollapseThreshold(AnalysisOptions options) {
+        return options.get("collapse-threshold") instanceof Integer threshold ?
+                threshold : PointerFlowGraph.DEFAULT_COLLAPSE_THRESHOLD;
     }
 
     /**
@@ -68,7 +125,24 @@ class Solver {
      */
     void solve() {
         initialize();
-        analyze();
+        if (parallel) {
+            analyzeInParallel();
+        } else {
+            analyze();
+        }
+        logWorkList();
+    }
+
+    /**
+     * Logs how many work-list entries were merged, compared to a work
+     * list which queues every added entry.
+     */
+    private void logWorkList() {
+        long added = workList.getAddedEntries();
+        long merged = workList.getMergedEntries();
+        logger.info("Work list: {} entries added, {} merged into pending sets, " +
+                        "{} polled (a work list without merging polls {})",
+                added, merged, added - merged, added);
     }
 
     /**
@@ -76,9 +150,11 @@ class Solver {
      */
     private void initialize() {
         workList = new WorkList();
-        pointerFlowGraph = new PointerFlowGraph();
+        pointerFlowGraph = new PointerFlowGraph(
+                collapseThreshold, bitmapPointsToSet, parallel);
         callGraph = new DefaultCallGraph();
         stmtProcessor = new StmtProcessor();
+        directChanges = new DirectChanges();
         hierarchy = World.get().getClassHierarchy();
         // initialize main method
         JMethod main = World.get().getMainMethod();
@@ -92,6 +168,14 @@ class Solver {
     private void addReachable(JMethod method) {
         // TODO - finish me
         if (!callGraph.contains(method) && callGraph.addReachableMethod(method)) {
+            if (hvn) {
+                for (List<Var> vars : HashValueNumbering
+                        .getEquivalentVars(method.getIR())) {
+                    pointerFlowGraph.mergePointers(vars.stream()
+                            .<Pointer>map(pointerFlowGraph::getVarPtr)
+                            .toList(), workList::addEntry);
+                }
+            }
             for (Stmt stmt : method.getIR().getStmts()) {
                 stmt.accept(stmtProcessor);
             }
@@ -106,7 +190,7 @@ class Solver {
         //  via visitor pattern, then finish me
         public Void visit(New stmt) {
             VarPtr varPtr = pointerFlowGraph.getVarPtr(stmt.getLValue());
-            PointsToSet flowedInObjs = new PointsToSet(heapModel.getObj(stmt));
+            PointsToSet flowedInObjs = pointerFlowGraph.makePointsToSet(heapModel.getObj(stmt));
             workList.addEntry(varPtr, flowedInObjs);
             return null;
         }
@@ -115,27 +199,10 @@ class Solver {
             // TODO - finish me
             if(stmt.isStatic()){
                 JMethod callee = resolveCallee(null, stmt);
-                Edge<Invoke, JMethod> edge = new Edge(CallKind.STATIC, stmt, callee);
+                Edge<Invoke, JMethod> edge = new Edge<>(CallKind.STATIC, stmt, callee);
                 if(callGraph.addEdge(edge)){
                     addReachable(callee);
-                    InvokeExp exp = stmt.getInvokeExp();
-                    if(exp != null){
-                        List<Var> args = exp.getArgs();
-                        for(int i = 0; i < args.size(); i++){
-                            Var var = args.get(i);
-                            VarPtr varPtr = pointerFlowGraph.getVarPtr(var);
-                            VarPtr fPtr = pointerFlowGraph.getVarPtr(callee.getIR().getParam(i));
-                            addPFGEdge(varPtr, fPtr);
-                        }
-                    }
-                    Var resultVar = stmt.getResult();
-                    if (resultVar != null) {
-                        VarPtr resultVarPtr = pointerFlowGraph.getVarPtr(resultVar);
-                        for (Var returnVar : callee.getIR().getReturnVars()) {
-                            VarPtr returnVarPtr = pointerFlowGraph.getVarPtr(returnVar);
-                            addPFGEdge(returnVarPtr, resultVarPtr);
-                        }
-                    }
+                    addCallPFGEdges(stmt, callee, directChanges);
                 }
             }
             return null;
@@ -146,7 +213,7 @@ class Solver {
             Var RValue = stmt.getRValue();
             VarPtr lPtr = pointerFlowGraph.getVarPtr(LValue);
             VarPtr rPtr = pointerFlowGraph.getVarPtr(RValue);
-            addPFGEdge(rPtr, lPtr);
+            addPFGEdge(rPtr, lPtr, directChanges);
             return null;
         }
 
@@ -164,7 +231,7 @@ class Solver {
                 StaticField sPtr = pointerFlowGraph.getStaticField(sField);
                 Var LValue = stmt.getLValue();
                 VarPtr tPtr = pointerFlowGraph.getVarPtr(LValue);
-                addPFGEdge(sPtr, tPtr);
+                addPFGEdge(sPtr, tPtr, directChanges);
             }
             return null;
         }
@@ -176,7 +243,7 @@ class Solver {
                 StaticField sPtr = pointerFlowGraph.getStaticField(sField);
                 Var RValue = stmt.getRValue();
                 VarPtr rPtr = pointerFlowGraph.getVarPtr(RValue);
-                addPFGEdge(rPtr, sPtr);
+                addPFGEdge(rPtr, sPtr, directChanges);
             }
             return null;
         }
@@ -185,12 +252,34 @@ class Solver {
     /**
      * Adds an edge "source -> target" to the PFG.
      */
-    private void addPFGEdge(Pointer source, Pointer target) {
+    private void addPFGEdge(Pointer source, Pointer target, Changes changes) {
         // TODO - finish me
         if (pointerFlowGraph.addEdge(source, target)) {
-            PointsToSet sourceSet = source.getPointsToSet();
-            if (!sourceSet.isEmpty()) {
-                workList.addEntry(target, sourceSet);
+            changes.edgeAdded(source, target);
+        }
+    }
+
+    /**
+     * Adds the PFG edges from the arguments of given call site to
+     * the parameters of given callee, and from the return variables
+     * of the callee to the result of the call site.
+     */
+    private void addCallPFGEdges(Invoke invoke, JMethod callee, Changes changes) {
+        InvokeExp exp = invoke.getInvokeExp();
+        if (exp != null) {
+            List<Var> args = exp.getArgs();
+            for (int i = 0; i < args.size(); i++) {
+                VarPtr argPtr = pointerFlowGraph.getVarPtr(args.get(i));
+                VarPtr fPtr = pointerFlowGraph.getVarPtr(callee.getIR().getParam(i));
+                addPFGEdge(argPtr, fPtr, changes);
+            }
+        }
+        Var resultVar = invoke.getResult();
+        if (resultVar != null) {
+            VarPtr resultVarPtr = pointerFlowGraph.getVarPtr(resultVar);
+            for (Var returnVar : callee.getIR().getReturnVars()) {
+                VarPtr returnVarPtr = pointerFlowGraph.getVarPtr(returnVar);
+                addPFGEdge(returnVarPtr, resultVarPtr, changes);
             }
         }
     }
@@ -201,27 +290,128 @@ class Solver {
     private void analyze() {
         // TODO - finish me
         while(!workList.isEmpty()){
+            pointerFlowGraph.collapseCycles(workList::addEntry);
             WorkList.Entry entry = workList.pollEntry();
             Pointer pointer = entry.pointer();
             PointsToSet pts = entry.pointsToSet();
             PointsToSet dta = propagate(pointer, pts);
 
-            if (pointer instanceof VarPtr varPtr) {
+            processNewObjects(pointer, dta, directChanges);
+        }
+    }
+
+    /**
+     * Processes work-list entries in rounds until the work-list is empty.
+     * <p>
+     * In each round, the entries are grouped by the representatives of
+     * their pointers, and the groups are split into partitions, which are
+     * processed concurrently. The thread of a partition updates the
+     * points-to sets of its groups, propagates the new objects to the
+     * successors, and processes the statements on the variables which
+     * point to the new objects, i.e., it adds the PFG edges of field and
+     * array accesses and the call edges and the PFG edges of calls.
+     * <p>
+     * Each points-to set is only updated by the thread of its group, and
+     * the sets given by the entries are not updated during the round, so
+     * the sets need no synchronization. The PFG is concurrent, and the
+     * call graph is updated by one thread at a time. The other changes,
+     * i.e., the new work-list entries, the objects which flow along new
+     * PFG edges, and the new reachable methods, are collected per
+     * partition and applied after the round, when the statements of the
+     * new reachable methods are processed. The result is the same fixed
+     * point as computed by {@link #analyze()}.
+     */
+    private void analyzeInParallel() {
+        int partitions = ForkJoinPool.getCommonPoolParallelism()
+                * PARTITIONS_PER_THREAD;
+        while (!workList.isEmpty()) {
+            pointerFlowGraph.collapseCycles(workList::addEntry);
+            List<WorkList.Entry> entries = workList.pollAllEntries();
+            List<Outbox> outboxes = partition(entries,
+                    entries.size() >= PARALLEL_THRESHOLD ? partitions : 1)
+                    .parallelStream()
+                    .map(this::processPartition)
+                    .toList();
+            outboxes.forEach(Outbox::flush);
+        }
+    }
+
+    /**
+     * Groups given entries by the representatives of their pointers,
+     * and splits the groups into given number of partitions.
+     */
+    private List<Map<Pointer, List<PointsToSet>>> partition(
+            List<WorkList.Entry> entries, int n) {
+        List<Map<Pointer, List<PointsToSet>>> partitions = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            partitions.add(Maps.newMap());
+        }
+        for (WorkList.Entry entry : entries) {
+            Pointer rep = pointerFlowGraph.getRepresentative(entry.pointer());
+            partitions.get(Math.floorMod(rep.hashCode(), n))
+                    .computeIfAbsent(rep, unused -> new ArrayList<>())
+                    .add(entry.pointsToSet());
+        }
+        return partitions;
+    }
+
+    /**
+     * Processes the groups of entries of a partition.
+     *
+     * @return the changes which are to be applied after the round.
+     */
+    private Outbox processPartition(Map<Pointer, List<PointsToSet>> groups) {
+        Outbox outbox = new Outbox();
+        groups.forEach((pointer, pointsToSets) -> {
+            PointsToSet dta = addAllDiff(pointer, pointsToSets);
+            if (!dta.isEmpty()) {
+                for (Pointer succ : pointerFlowGraph.getSuccsOf(pointer)) {
+                    outbox.addEntry(succ, dta);
+                }
+                processNewObjects(pointer, dta, outbox);
+            }
+        });
+        return outbox;
+    }
+
+    /**
+     * Adds given points-to sets to pt(pointer).
+     *
+     * @return the objects which are new to pt(pointer).
+     */
+    private static PointsToSet addAllDiff(Pointer pointer,
+                                          List<PointsToSet> pointsToSets) {
+        PointsToSet current = pointer.getPointsToSet();
+        PointsToSet dta = current.addAllDiff(pointsToSets.get(0));
+        for (int i = 1; i < pointsToSets.size(); ++i) {
+            current.addAllDiff(pointsToSets.get(i)).forEach(dta::addObject);
+        }
+        return dta;
+    }
+
+    /**
+     * Processes the objects newly pointed to by given pointer, for
+     * the variables which have been merged into the pointer.
+     */
+    private void processNewObjects(Pointer pointer, PointsToSet dta,
+                                   Changes changes) {
+        for (Pointer member : pointerFlowGraph.getMembersOf(pointer)) {
+            if (member instanceof VarPtr varPtr) {
                 Var var = varPtr.getVar();
                 dta.forEach(obj->{
                     var.getLoadFields().forEach(loadField->{
-                        addPFGEdge(pointerFlowGraph.getInstanceField(obj, loadField.getFieldRef().resolve()), pointerFlowGraph.getVarPtr(loadField.getLValue()));
+                        addPFGEdge(pointerFlowGraph.getInstanceField(obj, loadField.getFieldRef().resolve()), pointerFlowGraph.getVarPtr(loadField.getLValue()), changes);
                     });
                     var.getStoreFields().forEach(storeField->{
-                        addPFGEdge(pointerFlowGraph.getVarPtr(storeField.getRValue()), pointerFlowGraph.getInstanceField(obj, storeField.getFieldRef().resolve()));
+                        addPFGEdge(pointerFlowGraph.getVarPtr(storeField.getRValue()), pointerFlowGraph.getInstanceField(obj, storeField.getFieldRef().resolve()), changes);
                     });
                     var.getLoadArrays().forEach(loadArray->{
-                        addPFGEdge(pointerFlowGraph.getArrayIndex(obj), pointerFlowGraph.getVarPtr(loadArray.getLValue()));
+                        addPFGEdge(pointerFlowGraph.getArrayIndex(obj), pointerFlowGraph.getVarPtr(loadArray.getLValue()), changes);
                     });
                     var.getStoreArrays().forEach(storeArray->{
-                        addPFGEdge(pointerFlowGraph.getVarPtr(storeArray.getRValue()), pointerFlowGraph.getArrayIndex(obj));
+                        addPFGEdge(pointerFlowGraph.getVarPtr(storeArray.getRValue()), pointerFlowGraph.getArrayIndex(obj), changes);
                     });
-                    processCall(var, obj);
+                    processCall(var, obj, changes);
                 });
             }
         }
@@ -233,16 +423,7 @@ class Solver {
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
-        PointsToSet dta = new PointsToSet();
-        PointsToSet current = pointer.getPointsToSet();
-        if (!pointsToSet.isEmpty()) {
-            for (Obj obj : pointsToSet) {
-                if (!current.contains(obj)) {
-                    current.addObject(obj);
-                    dta.addObject(obj);
-                }
-            }
-        }
+        PointsToSet dta = pointer.getPointsToSet().addAllDiff(pointsToSet);
         if(!dta.isEmpty()){
             for (Pointer predPtr : pointerFlowGraph.getSuccsOf(pointer)) {
                 workList.addEntry(predPtr, dta);
@@ -257,13 +438,9 @@ class Solver {
      * @param var the variable that holds receiver objects
      * @param recv a new discovered object pointed by the variable.
      */
-    private void processCall(Var var, Obj recv) {
+    private void processCall(Var var, Obj recv, Changes changes) {
         // TODO - finish me
         for (Invoke invoke : var.getInvokes()) {
-            JMethod callee = resolveCallee(recv, invoke);
-            Pointer thisPtr = pointerFlowGraph.getVarPtr(callee.getIR().getThis());
-            workList.addEntry(thisPtr, new PointsToSet(recv));
-
             CallKind callKind;
             if (invoke.isStatic()) { callKind = CallKind.STATIC; }
             else if (invoke.isSpecial()) { callKind = CallKind.SPECIAL; }
@@ -272,26 +449,21 @@ class Solver {
             else if (invoke.isDynamic()) { callKind = CallKind.DYNAMIC; }
             else { callKind = CallKind.OTHER; }
 
-            if (callGraph.addEdge(new Edge<>(callKind, invoke, callee))) {
-                addReachable(callee);
-                InvokeExp exp = invoke.getInvokeExp();
-                if (exp != null) {
-                    List<Var> args = exp.getArgs();
-                    for (int i = 0; i < args.size(); i++) {
-                        Var arg = args.get(i);
-                        VarPtr argPtr = pointerFlowGraph.getVarPtr(arg);
-                        VarPtr fPtr = pointerFlowGraph.getVarPtr(callee.getIR().getParam(i));
-                        addPFGEdge(argPtr, fPtr);
-                    }
-                }
-                Var resultVar = invoke.getResult();
-                if (resultVar != null) {
-                    VarPtr resultVarPtr = pointerFlowGraph.getVarPtr(resultVar);
-                    for (Var returnVar : callee.getIR().getReturnVars()) {
-                        VarPtr returnVarPtr = pointerFlowGraph.getVarPtr(returnVar);
-                        addPFGEdge(returnVarPtr, resultVarPtr);
-                    }
-                }
+            JMethod callee;
+            boolean newEdge;
+            // the class hierarchy caches the dispatched methods and the IRs
+            // are built on demand, so, like the call graph, they are only
+            // accessed by one thread at a time
+            synchronized (callGraph) {
+                callee = resolveCallee(recv, invoke);
+                callee.getIR();
+                newEdge = callGraph.addEdge(new Edge<>(callKind, invoke, callee));
+            }
+            Pointer thisPtr = pointerFlowGraph.getVarPtr(callee.getIR().getThis());
+            changes.addEntry(thisPtr, pointerFlowGraph.makePointsToSet(recv));
+            if (newEdge) {
+                changes.calleeAdded(callee);
+                addCallPFGEdges(invoke, callee, changes);
             }
         }
     }
@@ -312,4 +484,94 @@ class Solver {
     CIPTAResult getResult() {
         return new CIPTAResult(pointerFlowGraph, callGraph);
     }
+
+    /**
+     * Receives the changes made by processing statements, besides
+     * the changes to the points-to sets, the PFG and the call graph.
+     */
+    private interface Changes {
+
+        /**
+         * Adds an entry to the work-list.
+         */
+        void addEntry(Pointer pointer, PointsToSet pointsToSet);
+
+        /**
+         * Notifies that edge "source -> target" has been added to the PFG,
+         * so that pt(source) is to be propagated to target.
+         */
+        void edgeAdded(Pointer source, Pointer target);
+
+        /**
+         * Notifies that a call edge to given callee has been added to
+         * the call graph, so that the callee is to be made reachable.
+         */
+        void calleeAdded(JMethod callee);
+    }
+
+    /**
+     * Applies the changes right away.
+     */
+    private class DirectChanges implements Changes {
+
+        @Override
+        public void addEntry(Pointer pointer, PointsToSet pointsToSet) {
+            workList.addEntry(pointer, pointsToSet);
+        }
+
+        @Override
+        public void edgeAdded(Pointer source, Pointer target) {
+            PointsToSet sourceSet = source.getPointsToSet();
+            if (!sourceSet.isEmpty()) {
+                // the set of source may be updated while target is being
+                // updated in parallel mode, thus target takes a snapshot
+                workList.addEntry(target, parallel ? sourceSet.copy() : sourceSet);
+            }
+        }
+
+        @Override
+        public void calleeAdded(JMethod callee) {
+            addReachable(callee);
+        }
+    }
+
+    /**
+     * Collects the changes made by the thread of a partition, which are
+     * applied after the round by {@link #flush()}.
+     */
+    private class Outbox implements Changes {
+
+        private final List<WorkList.Entry> entries = new ArrayList<>();
+
+        private final List<Pointer> edgeSources = new ArrayList<>();
+
+        private final List<Pointer> edgeTargets = new ArrayList<>();
+
+        private final List<JMethod> callees = new ArrayList<>();
+
+        @Override
+        public void addEntry(Pointer pointer, PointsToSet pointsToSet) {
+            entries.add(new WorkList.Entry(pointer, pointsToSet));
+        }
+
+        @Override
+        public void edgeAdded(Pointer source, Pointer target) {
+            edgeSources.add(source);
+            edgeTargets.add(target);
+        }
+
+        @Override
+        public void calleeAdded(JMethod callee) {
+            callees.add(callee);
+        }
+
+        private void flush() {
+            entries.forEach(entry ->
+                    directChanges.addEntry(entry.pointer(), entry.pointsToSet()));
+            for (int i = 0; i < edgeSources.size(); ++i) {
+                directChanges.edgeAdded(edgeSources.get(i), edgeTargets.get(i));
+            }
+            callees.forEach(directChanges::calleeAdded);
+        }
+    }
 }
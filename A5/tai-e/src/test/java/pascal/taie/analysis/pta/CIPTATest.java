@@ -29,6 +29,11 @@ public class CIPTATest {
 
     static final String DIR = "cipta";
 
+    static final String[] INPUT_CLASSES = {
+            "Example", "Array", "Assign", "Assign2", "StoreLoad", "Call",
+            "InstanceField", "StaticField", "StaticCall", "MergeParam"
+    };
+
     @Test
     public void testExample() {
         Tests.testCIPTA(DIR, "Example");
@@ -78,4 +83,36 @@ public class CIPTATest {
     public void testMergeParam() {
         Tests.testCIPTA(DIR, "MergeParam");
     }
+
+    @Test
+    public void testCollapseCycles() {
+        // detects cycles as early as possible, e.g., the one in Assign2
+        for (String main : INPUT_CLASSES) {
+            Tests.testCIPTA(DIR, main, "collapse-threshold:1");
+        }
+    }
+
+    @Test
+    public void testHVN() {
+        for (String main : INPUT_CLASSES) {
+            Tests.testCIPTA(DIR, main, "hvn:true");
+            Tests.testCIPTA(DIR, main, "hvn:true;collapse-threshold:1");
+        }
+    }
+
+    @Test
+    public void testParallel() {
+        for (String main : INPUT_CLASSES) {
+            Tests.testCIPTA(DIR, main, "parallel:true");
+            Tests.testCIPTA(DIR, main, "parallel:true;hvn:true");
+        }
+    }
+
+    @Test
+    public void testBitmapPointsToSet() {
+        for (String main : INPUT_CLASSES) {
+            Tests.testCIPTA(DIR, main, "bitmap-pts:true");
+            Tests.testCIPTA(DIR, main, "bitmap-pts:true;parallel:true;hvn:true");
+        }
+    }
 }
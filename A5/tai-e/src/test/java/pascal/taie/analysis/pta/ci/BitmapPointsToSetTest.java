@@ -0,0 +1,212 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public class BitmapPointsToSetTest {
+
+    private record TestObj(int id) implements Obj {
+
+        @Override
+        public Type getType() {
+            return null;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return id;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Type getContainerType() {
+            return null;
+        }
+    }
+
+    /**
+     * Objects whose indexes are given by the PFG, i.e., i-th object
+     * has index i. They span several words of the bitmaps.
+     */
+    private static List<Obj> objs(PointerFlowGraph pfg) {
+        List<Obj> objs = new ArrayList<>();
+        for (int i = 0; i < 200; ++i) {
+            Obj obj = new TestObj(i);
+            Assert.assertEquals(i, pfg.getObjIndex(obj));
+            objs.add(obj);
+        }
+        return objs;
+    }
+
+    private static PointsToSet make(PointerFlowGraph pfg, List<Obj> objs,
+                                    int... indexes) {
+        PointsToSet pts = pfg.makePointsToSet();
+        for (int i : indexes) {
+            pts.addObject(objs.get(i));
+        }
+        return pts;
+    }
+
+    private static Set<Obj> set(List<Obj> objs, int... indexes) {
+        Set<Obj> set = new HashSet<>();
+        for (int i : indexes) {
+            set.add(objs.get(i));
+        }
+        return set;
+    }
+
+    private static void assertObjects(Set<Obj> expected, PointsToSet pts) {
+        Assert.assertEquals(expected.size(), pts.size());
+        Assert.assertEquals(expected.isEmpty(), pts.isEmpty());
+        List<Obj> iterated = new ArrayList<>();
+        pts.forEach(iterated::add);
+        Assert.assertEquals(expected.size(), iterated.size());
+        Assert.assertEquals(expected, Set.copyOf(iterated));
+        Assert.assertEquals(expected, Set.copyOf(pts.getObjects()));
+        for (Obj obj : expected) {
+            Assert.assertTrue(pts.contains(obj));
+        }
+    }
+
+    @Test
+    public void testAddObject() {
+        PointerFlowGraph pfg = new PointerFlowGraph(1, true);
+        List<Obj> objs = objs(pfg);
+        PointsToSet pts = pfg.makePointsToSet();
+        assertObjects(Set.of(), pts);
+        Assert.assertTrue(pts.addObject(objs.get(130)));
+        Assert.assertTrue(pts.addObject(objs.get(0)));
+        Assert.assertTrue(pts.addObject(objs.get(63)));
+        Assert.assertTrue(pts.addObject(objs.get(64)));
+        Assert.assertFalse(pts.addObject(objs.get(63)));
+        Assert.assertFalse(pts.contains(objs.get(1)));
+        Assert.assertFalse(pts.contains(objs.get(199)));
+        Assert.assertFalse(pts.contains(new TestObj(-1)));
+        assertObjects(set(objs, 0, 63, 64, 130), pts);
+        Assert.assertEquals(List.of(objs.get(0), objs.get(63),
+                        objs.get(64), objs.get(130)),
+                pts.objects().toList());
+    }
+
+    @Test
+    public void testAddAllDiff() {
+        PointerFlowGraph pfg = new PointerFlowGraph(1, true);
+        List<Obj> objs = objs(pfg);
+        PointsToSet pts = make(pfg, objs, 1, 64);
+        // the other set is longer than this set
+        PointsToSet diff = pts.addAllDiff(make(pfg, objs, 1, 2, 150));
+        assertObjects(set(objs, 2, 150), diff);
+        assertObjects(set(objs, 1, 2, 64, 150), pts);
+        // nothing is new
+        diff = pts.addAllDiff(make(pfg, objs, 2, 64));
+        assertObjects(Set.of(), diff);
+        diff = pts.addAllDiff(pfg.makePointsToSet());
+        assertObjects(Set.of(), diff);
+        // the diff set can be updated
+        diff.addObject(objs.get(3));
+        assertObjects(set(objs, 3), diff);
+        assertObjects(set(objs, 1, 2, 64, 150), pts);
+        // the other set is shorter than this set
+        diff = pts.addAllDiff(make(pfg, objs, 0, 1));
+        assertObjects(set(objs, 0), diff);
+        // the other set is not a bitmap
+        PointsToSet hybrid = new PointsToSet();
+        hybrid.addObject(objs.get(150));
+        hybrid.addObject(objs.get(199));
+        diff = pts.addAllDiff(hybrid);
+        assertObjects(set(objs, 199), diff);
+        assertObjects(set(objs, 0, 1, 2, 64, 150, 199), pts);
+    }
+
+    @Test
+    public void testIntersect() {
+        PointerFlowGraph pfg = new PointerFlowGraph(1, true);
+        List<Obj> objs = objs(pfg);
+        PointsToSet pts = make(pfg, objs, 1, 64, 65, 199);
+        assertObjects(set(objs, 64),
+                pts.intersect(make(pfg, objs, 0, 64)));
+        assertObjects(set(objs, 65, 199),
+                make(pfg, objs, 3, 65, 199).intersect(pts));
+        assertObjects(Set.of(), pts.intersect(pfg.makePointsToSet()));
+        assertObjects(Set.of(), pts.intersect(make(pfg, objs, 0, 128)));
+        PointsToSet hybrid = new PointsToSet();
+        hybrid.addObject(objs.get(1));
+        hybrid.addObject(objs.get(2));
+        assertObjects(set(objs, 1), pts.intersect(hybrid));
+        // intersect() does not change the sets
+        assertObjects(set(objs, 1, 64, 65, 199), pts);
+    }
+
+    @Test
+    public void testCopy() {
+        PointerFlowGraph pfg = new PointerFlowGraph(1, true);
+        List<Obj> objs = objs(pfg);
+        PointsToSet pts = make(pfg, objs, 5, 70);
+        PointsToSet copy = pts.copy();
+        assertObjects(set(objs, 5, 70), copy);
+        copy.addObject(objs.get(6));
+        copy.addObject(objs.get(199));
+        pts.addObject(objs.get(7));
+        assertObjects(set(objs, 5, 6, 70, 199), copy);
+        assertObjects(set(objs, 5, 7, 70), pts);
+        assertObjects(Set.of(), pfg.makePointsToSet().copy());
+    }
+
+    @Test
+    public void testScatteredObjects() {
+        PointerFlowGraph pfg = new PointerFlowGraph(1, true);
+        List<Obj> objs = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i) {
+            objs.add(new TestObj(i));
+            pfg.getObjIndex(objs.get(i));
+        }
+        PointsToSet pts = make(pfg, objs, 1900, 3, 700);
+        assertObjects(set(objs, 3, 700, 1900), pts);
+        // merges words before, between and after the words of this set
+        PointsToSet diff = pts.addAllDiff(make(pfg, objs, 0, 4, 500, 701, 1999));
+        assertObjects(set(objs, 0, 4, 500, 701, 1999), diff);
+        assertObjects(set(objs, 0, 3, 4, 500, 700, 701, 1900, 1999), pts);
+        Assert.assertEquals(List.of(objs.get(0), objs.get(3), objs.get(4),
+                        objs.get(500), objs.get(700), objs.get(701),
+                        objs.get(1900), objs.get(1999)),
+                pts.objects().toList());
+        assertObjects(set(objs, 500, 1999),
+                pts.intersect(make(pfg, objs, 100, 500, 1000, 1999)));
+    }
+}
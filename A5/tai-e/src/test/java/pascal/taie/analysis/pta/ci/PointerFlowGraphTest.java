@@ -0,0 +1,114 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.ci;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class PointerFlowGraphTest {
+
+    private static Pointer[] varPtrs(PointerFlowGraph pfg, int n) {
+        Pointer[] pointers = new Pointer[n];
+        for (int i = 0; i < n; ++i) {
+            pointers[i] = pfg.getVarPtr(
+                    new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+        return pointers;
+    }
+
+    @Test
+    public void testCollapseCycleThroughMergedPointer() {
+        PointerFlowGraph pfg = new PointerFlowGraph(1, false);
+        Pointer[] p = varPtrs(pfg, 3);
+        // p0 -> p1 is added before p1 is merged into p2
+        pfg.addEdge(p[0], p[1]);
+        pfg.mergePointers(List.of(p[2], p[1]), (rep, pts) -> {
+        });
+        Assert.assertSame(p[2], pfg.getRepresentative(p[1]));
+        // closes the cycle p0 -> p1 (i.e., p2) -> p0
+        pfg.addEdge(p[2], p[0]);
+        pfg.collapseCycles((rep, pts) -> {
+        });
+        Pointer rep = pfg.getRepresentative(p[0]);
+        Assert.assertSame(rep, pfg.getRepresentative(p[1]));
+        Assert.assertSame(rep, pfg.getRepresentative(p[2]));
+        Assert.assertEquals(3, pfg.getMembersOf(p[0]).size());
+        Assert.assertTrue(pfg.getSuccsOf(rep).isEmpty());
+        Assert.assertSame(p[0].getPointsToSet(), p[1].getPointsToSet());
+        Assert.assertSame(p[0].getPointsToSet(), p[2].getPointsToSet());
+    }
+
+    @Test
+    public void testRedirectEdgesToRepresentatives() {
+        PointerFlowGraph pfg = new PointerFlowGraph(1, false);
+        Pointer[] p = varPtrs(pfg, 4);
+        pfg.addEdge(p[3], p[0]);
+        pfg.addEdge(p[0], p[1]);
+        pfg.addEdge(p[1], p[0]);
+        pfg.collapseCycles((rep, pts) -> {
+        });
+        Pointer rep = pfg.getRepresentative(p[0]);
+        Assert.assertSame(rep, pfg.getRepresentative(p[1]));
+        Assert.assertEquals(Set.of(rep), Set.copyOf(pfg.getSuccsOf(p[3])));
+    }
+
+    @Test
+    public void testConcurrentInsertion() throws InterruptedException {
+        PointerFlowGraph pfg = new PointerFlowGraph(0, false, true);
+        int n = 200;
+        List<Var> vars = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+        // every thread adds all edges vi -> vi+1 and vi -> vi+2
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; ++t) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < n; ++i) {
+                    Pointer source = pfg.getVarPtr(vars.get(i));
+                    for (int d = 1; d <= 2 && i + d < n; ++d) {
+                        pfg.addEdge(source, pfg.getVarPtr(vars.get(i + d)));
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(n, pfg.getPointers().size());
+        for (int i = 0; i < n; ++i) {
+            Set<Pointer> succs = pfg.getSuccsOf(pfg.getVarPtr(vars.get(i)));
+            Assert.assertEquals(Math.min(2, n - 1 - i), succs.size());
+        }
+    }
+}
@@ -83,15 +83,40 @@ class Solver {
         this.contextSelector = contextSelector;
     }
 
+    /**
+     * @return the value of option "collapse-threshold", i.e., the minimum
+     * number of new PFG edges before cycles are detected again, or
+     * {@link PointerFlowGraph#DEFAULT_COLLAPSE_THRESHOLD} if it is not given.
+     */
+    private static int getCollapseThreshold(AnalysisOptions options) {
+        return options.get("collapse-threshold") instanceof Integer threshold ?
+                threshold : PointerFlowGraph.DEFAULT_COLLAPSE_THRESHOLD;
+    }
+
     void solve() {
         initialize();
         analyze();
+        logWorkList();
+    }
+
+    /**
+     * Logs how many work-list entries were merged, compared to a work
+     * list which queues every added entry.
+     */
+    private void logWorkList() {
+        long added = workList.getAddedEntries();
+        long merged = workList.getMergedEntries();
+        logger.info("Work list: {} entries added, {} merged into pending sets, " +
+                        "{} polled (a work list without merging polls {})",
+                added, merged, added - merged, added);
     }
 
     private void initialize() {
+        PointsToSetFactory.setBitmap(
+                options.getBooleanOrDefault("bitmap-pts", false));
         csManager = new MapBasedCSManager();
         callGraph = new CSCallGraph(csManager);
-        pointerFlowGraph = new PointerFlowGraph();
+        pointerFlowGraph = new PointerFlowGraph(getCollapseThreshold(options));
         workList = new WorkList();
         // process program entry, i.e., main method
         Context defContext = contextSelector.getEmptyContext();
@@ -223,27 +248,30 @@ class Solver {
     private void analyze() {
         // TODO - finish me
         while(!workList.isEmpty()){
+            pointerFlowGraph.collapseCycles(workList::addEntry);
             WorkList.Entry entry = workList.pollEntry();
             PointsToSet dta = propagate(entry.pointer(), entry.pointsToSet());
 
-            if (entry.pointer() instanceof CSVar csvar) {
-                Var var = csvar.getVar();
-                Context context = csvar.getContext();
-                dta.forEach(csobj->{
-                    var.getLoadFields().forEach(loadField->{
-                        addPFGEdge(csManager.getInstanceField(csobj, loadField.getFieldRef().resolve()), csManager.getCSVar(context, loadField.getLValue()));
-                    });
-                    var.getStoreFields().forEach(storeField->{
-                        addPFGEdge(csManager.getCSVar(context, storeField.getRValue()), csManager.getInstanceField(csobj, storeField.getFieldRef().resolve()));
-                    });
-                    var.getLoadArrays().forEach(loadArray->{
-                        addPFGEdge(csManager.getArrayIndex(csobj), csManager.getCSVar(context, loadArray.getLValue()));
+            for (Pointer member : pointerFlowGraph.getMembersOf(entry.pointer())) {
+                if (member instanceof CSVar csvar) {
+                    Var var = csvar.getVar();
+                    Context context = csvar.getContext();
+                    dta.forEach(csobj->{
+                        var.getLoadFields().forEach(loadField->{
+                            addPFGEdge(csManager.getInstanceField(csobj, loadField.getFieldRef().resolve()), csManager.getCSVar(context, loadField.getLValue()));
+                        });
+                        var.getStoreFields().forEach(storeField->{
+                            addPFGEdge(csManager.getCSVar(context, storeField.getRValue()), csManager.getInstanceField(csobj, storeField.getFieldRef().resolve()));
+                        });
+                        var.getLoadArrays().forEach(loadArray->{
+                            addPFGEdge(csManager.getArrayIndex(csobj), csManager.getCSVar(context, loadArray.getLValue()));
+                        });
+                        var.getStoreArrays().forEach(storeArray->{
+                            addPFGEdge(csManager.getCSVar(context, storeArray.getRValue()), csManager.getArrayIndex(csobj));
+                        });
+                        processCall(csvar, csobj);
                     });
-                    var.getStoreArrays().forEach(storeArray->{
-                        addPFGEdge(csManager.getCSVar(context, storeArray.getRValue()), csManager.getArrayIndex(csobj));
-                    });
-                    processCall(csvar, csobj);
-                });
+                }
             }
         }
     }
@@ -254,16 +282,7 @@ class Solver {
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
-        PointsToSet dta = PointsToSetFactory.make();
-        PointsToSet current = pointer.getPointsToSet();
-        if (!pointsToSet.isEmpty()) {
-            pointsToSet.forEach(obj->{
-                if (!current.contains(obj)) {
-                    current.addObject(obj);
-                    dta.addObject(obj);
-                }
-            });
-        }
+        PointsToSet dta = pointer.getPointsToSet().addAllDiff(pointsToSet);
         if(!dta.isEmpty()){
             pointerFlowGraph.getSuccsOf(pointer).forEach(succ->{
                 workList.addEntry(succ, dta);
@@ -339,22 +358,4 @@ class Solver {
         }
         return result;
     }
-}callSite1 = csCallSite.getCallSite();
-                Context calleeContext = csMethod.getContext();
-                Context recvContext = csCallSite.getContext();
-
-                for (int i = 0; i < method1.getParamCount(); ++i) {
-                    CSVar sourcePtr = csManager.getCSVar(recvContext, callSite1.getInvokeExp().getArg(i));
-                    CSVar targetPtr = csManager.getCSVar(calleeContext, method1.getIR().getParam(i));
-                    addPFGEdge(sourcePtr, targetPtr);
-                }
-                Var resultVar = callSite1.getResult();
-                if (resultVar != null) {
-                    CSVar resultPtr = csManager.getCSVar(recvContext, resultVar);
-                    for (Var returnVar : method1.getIR().getReturnVars()) {
-                        CSVar returnPtr = csManager.getCSVar(calleeContext, returnVar);
-                        addPFGEdge(returnPtr, resultPtr);
-                    }
-
-                    // deal with taint analysis: call(source)
-                    CSObj taintObj = taintAnalysis.captureTaintObj(method1, callSite1
\ No newline at end of file
+}
@@ -24,22 +24,69 @@ package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
 import pascal.taie.analysis.pta.pts.PointsToSet;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
 
 import java.util.ArrayDeque;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 
 /**
  * Represents work list in pointer analysis.
+ * <p>
+ * The work list holds at most one entry for each pointer: the points-to
+ * sets added for a pointer which is already in the work list are merged
+ * into its pending set, so that the pointer is propagated only once for
+ * all of them.
  */
 class WorkList {
 
-    private final Queue<Entry> entries = new ArrayDeque<>();
+    /**
+     * Pointers in the work list, in the order they were added.
+     */
+    private final Queue<Pointer> pointers = new ArrayDeque<>();
+
+    /**
+     * Pending points-to sets of the pointers in the work list.
+     */
+    private final Map<Pointer, PointsToSet> pendingSets = Maps.newMap();
+
+    /**
+     * Pointers whose pending sets were created by this work list.
+     * Only these sets can be updated in place, as the others are
+     * given by the callers of {@link #addEntry(Pointer, PointsToSet)}.
+     */
+    private final Set<Pointer> ownedSets = Sets.newSet();
+
+    /**
+     * Number of entries added to this work list.
+     */
+    private long addedEntries;
+
+    /**
+     * Number of added entries which were merged into the pending sets
+     * of pointers already in this work list.
+     */
+    private long mergedEntries;
 
     /**
      * Adds an entry to the work list.
      */
     void addEntry(Pointer pointer, PointsToSet pointsToSet) {
-        entries.add(new Entry(pointer, pointsToSet));
+        ++addedEntries;
+        PointsToSet pending = pendingSets.get(pointer);
+        if (pending == null) {
+            pointers.add(pointer);
+            pendingSets.put(pointer, pointsToSet);
+        } else {
+            ++mergedEntries;
+            if (ownedSets.add(pointer)) {
+                pending = pending.copy();
+                pendingSets.put(pointer, pending);
+            }
+            pending.addAll(pointsToSet);
+        }
     }
 
     /**
@@ -47,14 +94,36 @@ class WorkList {
      * if this work list is empty.
      */
     Entry pollEntry() {
-        return entries.poll();
+        Pointer pointer = pointers.poll();
+        if (pointer == null) {
+            return null;
+        }
+        ownedSets.remove(pointer);
+        return new Entry(pointer, pendingSets.remove(pointer));
     }
 
     /**
      * @return true if the work list is empty, otherwise false.
      */
     boolean isEmpty() {
-        return entries.isEmpty();
+        return pointers.isEmpty();
+    }
+
+    /**
+     * @return the number of entries added to this work list.
+     * A work list without merging, which queues every added entry,
+     * would poll this many entries.
+     */
+    long getAddedEntries() {
+        return addedEntries;
+    }
+
+    /**
+     * @return the number of added entries which were merged into
+     * pending sets, i.e., the polls saved by merging.
+     */
+    long getMergedEntries() {
+        return mergedEntries;
     }
 
     /**
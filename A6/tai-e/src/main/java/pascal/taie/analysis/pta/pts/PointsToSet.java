@@ -49,6 +49,45 @@ public interface PointsToSet extends Iterable<CSObj> {
      */
     boolean addAll(PointsToSet pts);
 
+    /**
+     * Adds all objects in given pts to this set.
+     *
+     * @return a new set which contains the objects that are in given pts
+     * but were not in this set before the call, i.e., the difference set.
+     */
+    default PointsToSet addAllDiff(PointsToSet pts) {
+        PointsToSet diff = PointsToSetFactory.make();
+        for (CSObj obj : pts) {
+            if (addObject(obj)) {
+                diff.addObject(obj);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * @return a new set which contains the same objects as this set.
+     */
+    default PointsToSet copy() {
+        PointsToSet copy = PointsToSetFactory.make();
+        copy.addAll(this);
+        return copy;
+    }
+
+    /**
+     * @return a new set which contains the objects that are
+     * in both this set and given pts.
+     */
+    default PointsToSet intersect(PointsToSet pts) {
+        PointsToSet result = PointsToSetFactory.make();
+        for (CSObj obj : this) {
+            if (pts.contains(obj)) {
+                result.addObject(obj);
+            }
+        }
+        return result;
+    }
+
     /**
      * @return true if this set contains given object, otherwise false.
      */
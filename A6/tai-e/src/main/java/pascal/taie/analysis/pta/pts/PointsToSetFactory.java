@@ -35,8 +35,25 @@ public class PointsToSetFactory {
 
     private static final Supplier<Set<CSObj>> setFactory = Sets::newHybridSet;
 
+    /**
+     * Indexer of the objects in the bitmap points-to sets made by
+     * {@link #make()}, or null if it makes hybrid sets.
+     */
+    private static ObjIndexer indexer;
+
+    /**
+     * Sets whether {@link #make()} makes points-to sets represented as
+     * bitmaps over dense indexes of the objects. The indexes are given
+     * by a fresh index map, so this should be called once before each
+     * pointer analysis creates its pointers.
+     */
+    public static void setBitmap(boolean bitmap) {
+        indexer = bitmap ? new ObjIndexer() : null;
+    }
+
     public static PointsToSet make() {
-        return new DelegatePointsToSet(setFactory.get());
+        return indexer != null ? new BitmapPointsToSet(indexer)
+                : new DelegatePointsToSet(setFactory.get());
     }
 
     /**
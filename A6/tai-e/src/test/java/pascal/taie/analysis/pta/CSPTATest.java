@@ -39,6 +39,11 @@ public class CSPTATest {
         Tests.testCSPTA(DIR, "Assign");
     }
 
+    @Test
+    public void testAssign2() {
+        Tests.testCSPTA(DIR, "Assign2");
+    }
+
     @Test
     public void testStoreLoad() {
         Tests.testCSPTA(DIR, "StoreLoad");
@@ -93,4 +98,24 @@ public class CSPTATest {
     public void testArray() {
         Tests.testCSPTA(DIR, "Array");
     }
+
+    @Test
+    public void testCollapseCycles() {
+        // detects cycles as early as possible, e.g., the one in Assign2
+        Tests.testCSPTA(DIR, "Assign2", "collapse-threshold:1");
+        Tests.testCSPTA(DIR, "StoreLoad", "collapse-threshold:1");
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;collapse-threshold:1");
+        Tests.testCSPTA(DIR, "Array", "collapse-threshold:1");
+    }
+
+    @Test
+    public void testBitmapPointsToSet() {
+        Tests.testCSPTA(DIR, "New", "bitmap-pts:true");
+        Tests.testCSPTA(DIR, "Assign2", "bitmap-pts:true;collapse-threshold:1");
+        Tests.testCSPTA(DIR, "StoreLoad", "bitmap-pts:true");
+        Tests.testCSPTA(DIR, "Call", "bitmap-pts:true");
+        Tests.testCSPTA(DIR, "TwoObject", "cs:2-obj;bitmap-pts:true");
+        Tests.testCSPTA(DIR, "TwoCall", "cs:2-call;bitmap-pts:true");
+        Tests.testCSPTA(DIR, "Array", "bitmap-pts:true");
+    }
 }
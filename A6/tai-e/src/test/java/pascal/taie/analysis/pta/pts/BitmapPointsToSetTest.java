@@ -0,0 +1,211 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.pta.pts;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.pta.core.cs.context.ListContext;
+import pascal.taie.analysis.pta.core.cs.element.CSManager;
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.analysis.pta.core.cs.element.MapBasedCSManager;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.Type;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+public class BitmapPointsToSetTest {
+
+    private record TestObj(int id) implements Obj {
+
+        @Override
+        public Type getType() {
+            return null;
+        }
+
+        @Override
+        public Object getAllocation() {
+            return id;
+        }
+
+        @Override
+        public Optional<JMethod> getContainerMethod() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Type getContainerType() {
+            return null;
+        }
+    }
+
+    private final CSManager csManager = new MapBasedCSManager();
+
+    private final ObjIndexer indexer = new ObjIndexer();
+
+    /**
+     * Objects whose indexes are their positions in the list. They span
+     * many words, so that the sets can have gaps between their words.
+     */
+    private final List<CSObj> objs = new ArrayList<>();
+
+    {
+        for (int i = 0; i < 640; ++i) {
+            CSObj obj = csManager.getCSObj(ListContext.make(), new TestObj(i));
+            Assert.assertEquals(i, indexer.getIndex(obj));
+            objs.add(obj);
+        }
+    }
+
+    private PointsToSet make(int... indexes) {
+        PointsToSet pts = new BitmapPointsToSet(indexer);
+        for (int i : indexes) {
+            pts.addObject(objs.get(i));
+        }
+        return pts;
+    }
+
+    private PointsToSet makeHybrid(int... indexes) {
+        PointsToSet pts = PointsToSetFactory.make();
+        for (int i : indexes) {
+            pts.addObject(objs.get(i));
+        }
+        return pts;
+    }
+
+    private Set<CSObj> set(int... indexes) {
+        Set<CSObj> set = new HashSet<>();
+        for (int i : indexes) {
+            set.add(objs.get(i));
+        }
+        return set;
+    }
+
+    private void assertObjects(Set<CSObj> expected, PointsToSet pts) {
+        Assert.assertEquals(expected.size(), pts.size());
+        Assert.assertEquals(expected.isEmpty(), pts.isEmpty());
+        List<CSObj> iterated = new ArrayList<>();
+        pts.forEach(iterated::add);
+        Assert.assertEquals(expected.size(), iterated.size());
+        Assert.assertEquals(expected, Set.copyOf(iterated));
+        Assert.assertEquals(expected, Set.copyOf(pts.getObjects()));
+        for (CSObj obj : objs) {
+            Assert.assertEquals(expected.contains(obj), pts.contains(obj));
+        }
+    }
+
+    @Test
+    public void testAddObject() {
+        PointsToSet pts = make();
+        assertObjects(Set.of(), pts);
+        // inserts words at the end, at the front and in the middle
+        Assert.assertTrue(pts.addObject(objs.get(300)));
+        Assert.assertTrue(pts.addObject(objs.get(0)));
+        Assert.assertTrue(pts.addObject(objs.get(130)));
+        Assert.assertTrue(pts.addObject(objs.get(63)));
+        Assert.assertTrue(pts.addObject(objs.get(64)));
+        Assert.assertFalse(pts.addObject(objs.get(130)));
+        assertObjects(set(0, 63, 64, 130, 300), pts);
+        Assert.assertEquals(List.of(objs.get(0), objs.get(63),
+                        objs.get(64), objs.get(130), objs.get(300)),
+                pts.objects().toList());
+    }
+
+    @Test
+    public void testAddAll() {
+        PointsToSet pts = make(1, 200, 400);
+        // other set has words before, between and after the words of this set
+        Assert.assertTrue(pts.addAll(make(2, 100, 201, 300, 639)));
+        assertObjects(set(1, 2, 100, 200, 201, 300, 400, 639), pts);
+        // nothing is new, although the words overlap
+        Assert.assertFalse(pts.addAll(make(1, 201, 639)));
+        Assert.assertFalse(pts.addAll(make()));
+        assertObjects(set(1, 2, 100, 200, 201, 300, 400, 639), pts);
+        // adds to an empty set
+        PointsToSet empty = make();
+        Assert.assertTrue(empty.addAll(pts));
+        assertObjects(set(1, 2, 100, 200, 201, 300, 400, 639), empty);
+        // other set is not a bitmap
+        Assert.assertTrue(pts.addAll(makeHybrid(3, 500)));
+        Assert.assertFalse(pts.addAll(makeHybrid(3)));
+        assertObjects(set(1, 2, 3, 100, 200, 201, 300, 400, 500, 639), pts);
+    }
+
+    @Test
+    public void testAddAllDiff() {
+        PointsToSet pts = make(1, 200, 400);
+        PointsToSet diff = pts.addAllDiff(make(1, 2, 100, 200, 639));
+        assertObjects(set(2, 100, 639), diff);
+        assertObjects(set(1, 2, 100, 200, 400, 639), pts);
+        // nothing is new
+        assertObjects(Set.of(), pts.addAllDiff(make(2, 400)));
+        assertObjects(Set.of(), pts.addAllDiff(make()));
+        // the diff set is independent of both sets
+        PointsToSet other = make(5, 450);
+        diff = pts.addAllDiff(other);
+        diff.addObject(objs.get(6));
+        assertObjects(set(5, 6, 450), diff);
+        assertObjects(set(5, 450), other);
+        assertObjects(set(1, 2, 5, 100, 200, 400, 450, 639), pts);
+        // other set is not a bitmap
+        diff = pts.addAllDiff(makeHybrid(5, 7, 600));
+        assertObjects(set(7, 600), diff);
+        assertObjects(set(1, 2, 5, 7, 100, 200, 400, 450, 600, 639), pts);
+    }
+
+    @Test
+    public void testIntersect() {
+        PointsToSet pts = make(1, 64, 65, 300, 639);
+        assertObjects(set(64, 639), pts.intersect(make(0, 64, 100, 639)));
+        assertObjects(set(65, 300), make(3, 65, 300).intersect(pts));
+        assertObjects(Set.of(), pts.intersect(make()));
+        assertObjects(Set.of(), make().intersect(pts));
+        // the words overlap, but the objects do not
+        assertObjects(Set.of(), pts.intersect(make(0, 66, 301)));
+        // other set is not a bitmap
+        assertObjects(set(1, 300), pts.intersect(makeHybrid(1, 2, 300)));
+        // intersect() changes neither set
+        assertObjects(set(1, 64, 65, 300, 639), pts);
+    }
+
+    @Test
+    public void testCopy() {
+        PointsToSet pts = make(5, 70, 600);
+        PointsToSet copy = pts.copy();
+        assertObjects(set(5, 70, 600), copy);
+        copy.addObject(objs.get(6));
+        copy.addObject(objs.get(300));
+        pts.addObject(objs.get(7));
+        assertObjects(set(5, 6, 70, 300, 600), copy);
+        assertObjects(set(5, 7, 70, 600), pts);
+        PointsToSet emptyCopy = make().copy();
+        assertObjects(Set.of(), emptyCopy);
+        Assert.assertTrue(emptyCopy.addObject(objs.get(1)));
+        assertObjects(set(1), emptyCopy);
+    }
+}
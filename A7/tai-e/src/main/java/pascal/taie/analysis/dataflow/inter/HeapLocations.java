@@ -0,0 +1,126 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Pair;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the heap locations that each load and store may access, and
+ * of the loads that may read each heap location, which is built once from
+ * the result of pointer analysis.
+ * <p>
+ * The locations of fields are JFields for static fields, and
+ * Pair&lt;Obj, JField&gt;s for instance fields. The locations of arrays
+ * are the array objects. Whether array accesses really alias also depends
+ * on their indexes, which are only known during the analysis, so the
+ * loads of an array object are candidates.
+ */
+class HeapLocations {
+
+    private final Map<Stmt, List<Object>> fieldLocations = Maps.newMap();
+
+    private final Map<Stmt, Set<Obj>> arrayLocations = Maps.newMap();
+
+    private final MultiMap<Object, LoadField> fieldLoads = Maps.newMultiMap();
+
+    private final MultiMap<Obj, LoadArray> arrayLoads = Maps.newMultiMap();
+
+    HeapLocations(PointerAnalysisResult pta, Iterable<Stmt> stmts) {
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof LoadField load) {
+                List<Object> locations = locationsOf(pta,
+                        load.getFieldRef().resolve(), load.getFieldAccess());
+                fieldLocations.put(load, locations);
+                locations.forEach(location -> fieldLoads.put(location, load));
+            } else if (stmt instanceof StoreField store) {
+                fieldLocations.put(store, locationsOf(pta,
+                        store.getFieldRef().resolve(), store.getFieldAccess()));
+            } else if (stmt instanceof LoadArray load) {
+                Set<Obj> arrays = pta.getPointsToSet(load.getArrayAccess().getBase());
+                arrayLocations.put(load, arrays);
+                arrays.forEach(array -> arrayLoads.put(array, load));
+            } else if (stmt instanceof StoreArray store) {
+                arrayLocations.put(store,
+                        pta.getPointsToSet(store.getArrayAccess().getBase()));
+            }
+        }
+    }
+
+    private static List<Object> locationsOf(
+            PointerAnalysisResult pta, JField field, FieldAccess access) {
+        if (access instanceof InstanceFieldAccess instanceAccess) {
+            return pta.getPointsToSet(instanceAccess.getBase())
+                    .stream()
+                    .map(obj -> (Object) new Pair<>(obj, field))
+                    .toList();
+        } else {
+            return List.of(field);
+        }
+    }
+
+    /**
+     * @return the locations that may be accessed by given field load or store.
+     */
+    List<Object> getLocationsOf(Stmt stmt) {
+        return fieldLocations.get(stmt);
+    }
+
+    /**
+     * @return the array objects that may be accessed by given array load
+     * or store.
+     */
+    Set<Obj> getArraysOf(Stmt stmt) {
+        return arrayLocations.get(stmt);
+    }
+
+    /**
+     * @return the loads that may read given field location.
+     */
+    Set<LoadField> getLoadsOf(Object location) {
+        return fieldLoads.get(location);
+    }
+
+    /**
+     * @return the loads that may read the elements of given array object.
+     */
+    Set<LoadArray> getArrayLoadsOf(Obj array) {
+        return arrayLoads.get(array);
+    }
+}
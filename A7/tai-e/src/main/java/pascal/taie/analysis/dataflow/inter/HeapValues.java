@@ -0,0 +1,175 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Abstract heap for alias-aware constant propagation, which maintains
+ * the meet of all values stored to each heap location: each static field,
+ * each (object, instance field) pair, and each array object, where the
+ * values of arrays are further classified by their indexes.
+ * <p>
+ * The locations that each load or store may access are looked up in
+ * {@link HeapLocations}. Stores update the values of their locations
+ * incrementally, which is exact as the stored values only move up the
+ * lattice during solving, and loads look up their values in time linear
+ * to the number of locations they may access.
+ */
+class HeapValues {
+
+    private final ConstantPropagation cp;
+
+    private final HeapLocations locations;
+
+    private final Map<Object, Value> fieldValues = Maps.newMap();
+
+    private final Map<Obj, ArrayValues> arrayValues = Maps.newMap();
+
+    HeapValues(ConstantPropagation cp, HeapLocations locations) {
+        this.cp = cp;
+        this.locations = locations;
+    }
+
+    /**
+     * @return the meet of the values stored to the field read by given load.
+     */
+    Value load(LoadField load) {
+        Value value = Value.getUndef();
+        for (Object location : locations.getLocationsOf(load)) {
+            value = cp.meetValue(value,
+                    fieldValues.getOrDefault(location, Value.getUndef()));
+        }
+        return value;
+    }
+
+    /**
+     * Meets {@code value} into the values of the locations written by given
+     * store, and offers the loads of the changed locations to {@code workList}.
+     */
+    void store(StoreField store, Value value, Queue<Stmt> workList) {
+        for (Object location : locations.getLocationsOf(store)) {
+            Value old = fieldValues.getOrDefault(location, Value.getUndef());
+            Value meet = cp.meetValue(old, value);
+            if (!meet.equals(old)) {
+                fieldValues.put(location, meet);
+                locations.getLoadsOf(location).forEach(workList::offer);
+            }
+        }
+    }
+
+    /**
+     * @return the meet of the values stored to the array elements that
+     * may be read by given load, whose index has value {@code index}.
+     */
+    Value load(LoadArray load, Value index) {
+        Value value = Value.getUndef();
+        if (index.isUndef()) {
+            return value;
+        }
+        for (Obj array : locations.getArraysOf(load)) {
+            ArrayValues values = arrayValues.get(array);
+            if (values != null) {
+                value = cp.meetValue(value, values.get(index));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Meets {@code value} into the values of the array elements that may be
+     * written by given store, whose index has value {@code index}, and offers
+     * the loads of the changed arrays to {@code workList}.
+     */
+    void store(StoreArray store, Value index, Value value,
+               Queue<Stmt> workList) {
+        if (index.isUndef()) {
+            return;
+        }
+        for (Obj array : locations.getArraysOf(store)) {
+            if (arrayValues.computeIfAbsent(array, __ -> new ArrayValues())
+                    .update(index, value)) {
+                locations.getArrayLoadsOf(array).forEach(workList::offer);
+            }
+        }
+    }
+
+    /**
+     * Values stored to an array object, classified by the indexes.
+     * Accesses at constant indexes only alias the accesses at the same
+     * constant or at NAC indexes, while accesses at NAC indexes alias all
+     * accesses. An index may move from a constant to NAC during solving,
+     * but the values stored at the constant stay subsumed by those at NAC.
+     */
+    private class ArrayValues {
+
+        private final Map<Integer, Value> constIndexes = Maps.newHybridMap();
+
+        private Value nacIndex = Value.getUndef();
+
+        private Value allIndexes = Value.getUndef();
+
+        private Value get(Value index) {
+            if (index.isConstant()) {
+                return cp.meetValue(nacIndex, constIndexes.getOrDefault(
+                        index.getConstant(), Value.getUndef()));
+            }
+            return allIndexes;
+        }
+
+        /**
+         * @return true if the values changed, otherwise false.
+         */
+        private boolean update(Value index, Value value) {
+            boolean changed = false;
+            if (index.isConstant()) {
+                Value old = constIndexes.getOrDefault(
+                        index.getConstant(), Value.getUndef());
+                Value meet = cp.meetValue(old, value);
+                if (!meet.equals(old)) {
+                    constIndexes.put(index.getConstant(), meet);
+                    changed = true;
+                }
+            } else {
+                Value meet = cp.meetValue(nacIndex, value);
+                changed = !meet.equals(nacIndex);
+                nacIndex = meet;
+            }
+            Value meet = cp.meetValue(allIndexes, value);
+            changed |= !meet.equals(allIndexes);
+            allIndexes = meet;
+            return changed;
+        }
+    }
+}
@@ -29,24 +29,16 @@ import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
-import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
-import pascal.taie.ir.exp.ArrayAccess;
-import pascal.taie.ir.exp.FieldAccess;
-import pascal.taie.ir.exp.InstanceFieldAccess;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.*;
-import pascal.taie.language.classes.JClass;
-import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * Implementation of interprocedural constant propagation for int values.
  */
@@ -59,6 +51,11 @@ public class InterConstantPropagation extends
 
     private PointerAnalysisResult pta;
 
+    /**
+     * Values stored to the heap locations.
+     */
+    private HeapValues heap;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
@@ -69,6 +66,7 @@ public class InterConstantPropagation extends
         String ptaId = getOptions().getString("pta");
         pta = World.get().getResult(ptaId);
         // You can do initialization work here
+        heap = new HeapValues(cp, new HeapLocations(pta, icfg));
     }
 
     @Override
@@ -102,166 +100,85 @@ public class InterConstantPropagation extends
     protected boolean transferNonCallNode(Stmt stmt, CPFact in, CPFact out) {
         // TODO - finish me
         if(stmt instanceof LoadField loadField){
-            Value value = Value.getUndef();
-            if(loadField.isStatic()){
-                for (Stmt storestmt : this.icfg) {
-                    if(storestmt instanceof StoreField storeField && storeField.isStatic()){
-                        boolean isAlias;
-                        FieldAccess loadfieldAccess = loadField.getFieldAccess();
-                        FieldAccess storefieldAccess = storeField.getFieldAccess();
-                        if(!loadField.getFieldRef().resolve().equals(storeField.getFieldRef().resolve())){
-                            isAlias = false;
-                        }
-                        else if(loadfieldAccess instanceof InstanceFieldAccess loadInstanceFieldAccess){
-                            InstanceFieldAccess storeInstanceFieldAccess = (InstanceFieldAccess) storefieldAccess;
-                            Set<Obj> b1Pts = new HashSet<>(pta.getPointsToSet(loadInstanceFieldAccess.getBase()));
-                            Set<Obj> b2Pts = new HashSet<>(pta.getPointsToSet(storeInstanceFieldAccess.getBase()));
-                            b1Pts.retainAll(b2Pts);
-                            isAlias = !b1Pts.isEmpty();
-                        }
-                        else {
-                            isAlias = loadfieldAccess.getFieldRef().getDeclaringClass().equals(storefieldAccess.getFieldRef().getDeclaringClass());
-                        }
-                        if(isAlias) {
-                            value = cp.meetValue(value, this.solver.result.getOutFact(storeField).get(storeField.getRValue()));
-                        }
-                    }
-                }
-            }
-            else{
-                for (Stmt storestmt : this.icfg) {
-                    if(storestmt instanceof StoreField storeField && !storeField.isStatic()){
-                        boolean isAlias;
-                        FieldAccess loadfieldAccess = loadField.getFieldAccess();
-                        FieldAccess storefieldAccess = storeField.getFieldAccess();
-                        if(!loadField.getFieldRef().resolve().equals(storeField.getFieldRef().resolve())){
-                            isAlias = false;
-                        }
-                        else if(loadfieldAccess instanceof InstanceFieldAccess loadInstanceFieldAccess){
-                            InstanceFieldAccess storeInstanceFieldAccess = (InstanceFieldAccess) storefieldAccess;
-                            Set<Obj> b1Pts = new HashSet<>(pta.getPointsToSet(loadInstanceFieldAccess.getBase()));
-                            Set<Obj> b2Pts = new HashSet<>(pta.getPointsToSet(storeInstanceFieldAccess.getBase()));
-                            b1Pts.retainAll(b2Pts);
-                            isAlias = !b1Pts.isEmpty();
-                        }
-                        else {
-                            isAlias = loadfieldAccess.getFieldRef().getDeclaringClass().equals(storefieldAccess.getFieldRef().getDeclaringClass());
-                        }
-                        if(isAlias) {
-                            value = cp.meetValue(Value.getUndef(), this.solver.result.getOutFact(storeField).get(storeField.getRValue()));
-                        }
-                    }
-                }
-            }
-            CPFact temp = in.copy();
-            temp.update(loadField.getLValue(), value);
-            return out.copyFrom(temp);
-        }
-        if(stmt instanceof StoreField storeField){
-                for(Var var : pta.getVars()){
-                    for (LoadField loadField : var.getLoadFields()) {
-                        boolean isAlias;
-                        FieldAccess loadfieldAccess = loadField.getFieldAccess();
-                        FieldAccess storefieldAccess = storeField.getFieldAccess();
-                        if(!loadField.getFieldRef().resolve().equals(storeField.getFieldRef().resolve())){
-                            isAlias = false;
-                        }
-                        else if(loadfieldAccess instanceof InstanceFieldAccess loadInstanceFieldAccess){
-                            InstanceFieldAccess storeInstanceFieldAccess = (InstanceFieldAccess) storefieldAccess;
-                            Set<Obj> b1Pts = new HashSet<>(pta.getPointsToSet(loadInstanceFieldAccess.getBase()));
-                            Set<Obj> b2Pts = new HashSet<>(pta.getPointsToSet(storeInstanceFieldAccess.getBase()));
-                            b1Pts.retainAll(b2Pts);
-                            isAlias = !b1Pts.isEmpty();
-                        }
-                        else {
-                            isAlias = loadfieldAccess.getFieldRef().getDeclaringClass().equals(storefieldAccess.getFieldRef().getDeclaringClass());
-                        }
-                        if (isAlias) {
-                            if(!this.solver.workList.contains(loadField)){
-                                this.solver.workList.offer(loadField);
-                            }
-                        }
-                    }
-                }
+            return transferLoad(in, out, loadField.getLValue(),
+                    heap.load(loadField));
         }
         if(stmt instanceof LoadArray loadArray){
-            Value value = Value.getUndef();
-            for (Stmt storestmt : this.icfg) {
-                if(storestmt instanceof StoreArray storeArray){
-                    boolean isAlias;
-                    ArrayAccess loadAccess = loadArray.getArrayAccess();
-                    ArrayAccess storeAccess = storeArray.getArrayAccess();
-
-                    Set<Obj> b1Pts = new HashSet<>(pta.getPointsToSet(loadAccess.getBase()));
-                    Set<Obj> b2Pts = new HashSet<>(pta.getPointsToSet(storeAccess.getBase()));
-                    b1Pts.retainAll(b2Pts);
-                    if (b1Pts.isEmpty()) {
-                        isAlias = false;
-                    }
-                    else {
-                        Value index1 = this.solver.result.getInFact(loadArray).get(loadAccess.getIndex());
-                        Value index2 = this.solver.result.getInFact(storeArray).get(storeAccess.getIndex());
-                        isAlias = index1.isNAC() && !index2.isUndef() ||
-                                index2.isNAC() && !index1.isUndef() ||
-                                index1.isConstant() && index2.isConstant() && index1.getConstant() == index2.getConstant();
-                    }
-                    if(isAlias){
-                        value = cp.meetValue(value, this.solver.result.getOutFact(storeArray).get(storeArray.getRValue()));
-                    }
-                }
-            }
-            CPFact temp = in.copy();
-            temp.update(loadArray.getLValue(), value);
-            return out.copyFrom(temp);
+            Value index = in.get(loadArray.getArrayAccess().getIndex());
+            return transferLoad(in, out, loadArray.getLValue(),
+                    heap.load(loadArray, index));
+        }
+        boolean changed = cp.transferNode(stmt, in, out);
+        if(stmt instanceof StoreField storeField){
+            heap.store(storeField, out.get(storeField.getRValue()),
+                    this.solver.workList);
         }
         if(stmt instanceof StoreArray storeArray){
-            for (Var var : pta.getVars()){
-                for(LoadArray loadArray : var.getLoadArrays()){
-                    boolean isAlias;
-                    ArrayAccess loadAccess = loadArray.getArrayAccess();
-                    ArrayAccess storeAccess = storeArray.getArrayAccess();
+            heap.store(storeArray, in.get(storeArray.getArrayAccess().getIndex()),
+                    out.get(storeArray.getRValue()), this.solver.workList);
+        }
+        return changed;
+    }
 
-                    Set<Obj> b1Pts = new HashSet<>(pta.getPointsToSet(loadAccess.getBase()));
-                    Set<Obj> b2Pts = new HashSet<>(pta.getPointsToSet(storeAccess.getBase()));
-                    b1Pts.retainAll(b2Pts);
-                    if (b1Pts.isEmpty()) {
-                        isAlias = false;
-                    }
-                    else {
-                        Value index1 = this.solver.result.getInFact(loadArray).get(loadAccess.getIndex());
-                        Value index2 = this.solver.result.getInFact(storeArray).get(storeAccess.getIndex());
-                        isAlias = index1.isNAC() && !index2.isUndef() ||
-                                index2.isNAC() && !index1.isUndef() ||
-                                index1.isConstant() && index2.isConstant() && index1.getConstant() == index2.getConstant();
-                    }
-                    if(isAlias){
-                        if(!this.solver.workList.contains(loadArray)){
-                            this.solver.workList.offer(loadArray);
-                        }
-                    }
-                }
+    /**
+     * Copies {@code in} to {@code out} with {@code lhs} mapped to the loaded
+     * value, without creating a temporary fact. Like {@link CPFact#copyFrom},
+     * this never removes variables from {@code out}, thus an UNDEF loaded
+     * value leaves {@code lhs} of {@code out} untouched.
+     *
+     * @return true if {@code out} changed.
+     */
+    private static boolean transferLoad(CPFact in, CPFact out,
+                                        Var lhs, Value value) {
+        boolean changed = false;
+        for (Var var : in.keySet()) {
+            if (!var.equals(lhs)) {
+                changed |= out.update(var, in.get(var));
             }
         }
-        return cp.transferNode(stmt, in, out);
+        if (!value.isUndef()) {
+            changed |= out.update(lhs, value);
+        }
+        return changed;
     }
 
     @Override
     protected CPFact transferNormalEdge(NormalEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
-        return out.copy();
+        return out;
     }
 
     @Override
     protected CPFact transferCallToReturnEdge(CallToReturnEdge<Stmt> edge, CPFact out) {
         // TODO - finish me
-        Invoke callSite = (Invoke) edge.getSource();
-        CPFact newFact = out.copy();
-        if (callSite.getResult() != null) {
-            newFact.remove(callSite.getResult());
+        // copies the fact only if it has the LHS of the call site to kill
+        Var result = ((Invoke) edge.getSource()).getResult();
+        if (result == null || out.get(result).isUndef()) {
+            return out;
         }
+        CPFact newFact = out.copy();
+        newFact.remove(result);
         return newFact;
     }
 
+    @Override
+    public void meetEdgeInto(ICFGEdge<Stmt> edge, CPFact out, CPFact target) {
+        if (edge instanceof NormalEdge) {
+            cp.meetInto(out, target);
+        } else if (edge instanceof CallToReturnEdge) {
+            // meets all variables but the LHS of the call site, which is
+            // killed by transferCallToReturnEdge()
+            Var result = ((Invoke) edge.getSource()).getResult();
+            out.forEach((var, value) -> {
+                if (!var.equals(result)) {
+                    target.update(var, cp.meetValue(value, target.get(var)));
+                }
+            });
+        } else {
+            cp.meetInto(transferEdge(edge, out), target);
+        }
+    }
+
     @Override
     protected CPFact transferCallEdge(CallEdge<Stmt> edge, CPFact callSiteOut) {
         // TODO - finish me
@@ -25,9 +25,10 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
-import pascal.taie.util.collection.SetQueue;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -76,25 +77,60 @@ class InterSolver<Method, Node, Fact> {
 
     private void doSolve() {
         // TODO - finish me
-        workList = new SetQueue<>();
-        workList.addAll(icfg.getNodes());
-        while (!workList.isEmpty()) {
-            Node node = workList.poll();
-            for (ICFGEdge<Node> nodeICFGEdge : icfg.getInEdgesOf(node)) {
-                Fact inFact = result.getInFact(nodeICFGEdge.getSource());
-                Fact outFact = result.getOutFact(nodeICFGEdge.getSource());
-                analysis.meetInto(analysis.transferEdge(nodeICFGEdge, outFact), result.getInFact(node));
+        InterWorkList<Method, Node> workList = new InterWorkList<>(icfg);
+        this.workList = workList;
+        int n = workList.getNumberOfNodes();
+        // number the edges by the indexes of their sources, and keep the
+        // edges of each node by their numbers, so that the loop below
+        // addresses nodes and edges by their numbers
+        List<ICFGEdge<Node>> edges = new ArrayList<>();
+        int[][] outEdges = new int[n][];
+        int[] inDegrees = new int[n];
+        for (int i = 0; i < n; ++i) {
+            Set<ICFGEdge<Node>> out = icfg.getOutEdgesOf(workList.getNode(i));
+            outEdges[i] = new int[out.size()];
+            int k = 0;
+            for (ICFGEdge<Node> edge : out) {
+                outEdges[i][k++] = edges.size();
+                edges.add(edge);
+                ++inDegrees[workList.indexOf(edge.getTarget())];
             }
-            Fact oldOutFact = result.getOutFact(node);
-            Fact oldinFact = result.getInFact(node);
-            if (analysis.transferNode(node, oldinFact, oldOutFact)) {
-                for (Node succ : icfg.getSuccsOf(node)) {
-                    if (!workList.contains(succ)) {
-                        workList.offer(succ);
-                    }
+        }
+        int[] targets = new int[edges.size()];
+        int[][] inEdges = new int[n][];
+        for (int i = 0; i < n; ++i) {
+            inEdges[i] = new int[inDegrees[i]];
+            inDegrees[i] = 0;
+        }
+        for (int e = 0; e < edges.size(); ++e) {
+            int target = workList.indexOf(edges.get(e).getTarget());
+            targets[e] = target;
+            inEdges[target][inDegrees[target]++] = e;
+        }
+        // IN facts only grow, so the edges whose source OUT facts have
+        // not changed since they were last met can be skipped
+        BitSet changedEdges = new BitSet(edges.size());
+        changedEdges.set(0, edges.size());
+        for (int i = 0; i < n; ++i) {
+            workList.offerIndex(i);
+        }
+        for (int i = workList.pollIndex(); i >= 0; i = workList.pollIndex()) {
+            Node node = workList.getNode(i);
+            Fact in = result.getInFact(node);
+            for (int e : inEdges[i]) {
+                if (changedEdges.get(e)) {
+                    changedEdges.clear(e);
+                    ICFGEdge<Node> edge = edges.get(e);
+                    analysis.meetEdgeInto(edge,
+                            result.getOutFact(edge.getSource()), in);
+                }
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (int e : outEdges[i]) {
+                    changedEdges.set(e);
+                    workList.offerIndex(targets[e]);
                 }
             }
         }
     }
 }
-
@@ -39,6 +39,11 @@ public class InterCPAliasTest {
         );
     }
 
+    @Test
+    public void testAliasedFieldStores() {
+        test("AliasedFieldStores");
+    }
+
     @Test
     public void testArray() {
         test("Array");
@@ -54,6 +59,11 @@ public class InterCPAliasTest {
         test("ArrayLoops");
     }
 
+    @Test
+    public void testArrayManyIndexes() {
+        test("ArrayManyIndexes");
+    }
+
     @Test
     public void testInstanceField() {
         test("InstanceField");
@@ -83,4 +93,9 @@ public class InterCPAliasTest {
     public void testStaticFieldMultiStores() {
         test("StaticFieldMultiStores");
     }
+
+    @Test
+    public void testStaticFieldRequeue() {
+        test("StaticFieldRequeue");
+    }
 }
@@ -0,0 +1,18 @@
+class AliasedFieldStores {
+
+    public static void main(String[] args) {
+        Cell c1 = new Cell();
+        Cell c2 = c1;
+        c1.f = 1;
+        c2.f = 2;
+        int x = c1.f;
+        c1.g = 3;
+        c2.g = 3;
+        int y = c2.g;
+    }
+}
+
+class Cell {
+    int f;
+    int g;
+}
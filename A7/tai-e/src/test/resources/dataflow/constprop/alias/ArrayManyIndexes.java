@@ -0,0 +1,19 @@
+class ArrayManyIndexes {
+
+    public static void main(String[] args) {
+        int[] a = new int[10];
+        a[0] = 10;
+        a[1] = 11;
+        a[2] = 12;
+        a[3] = 13;
+        a[4] = 14;
+        a[5] = 15;
+        a[6] = 16;
+        a[7] = 17;
+        a[8] = 18;
+        a[9] = 19;
+        int x = a[0];
+        int y = a[8];
+        int z = a[9];
+    }
+}
@@ -0,0 +1,24 @@
+class StaticFieldRequeue {
+
+    static int f;
+
+    public static void main(String[] args) {
+        int x = load();
+        store();
+    }
+
+    static int load() {
+        int v = f;
+        return v;
+    }
+
+    static void store() {
+        int t = ten();
+        f = t;
+    }
+
+    static int ten() {
+        int i = 10;
+        return i;
+    }
+}
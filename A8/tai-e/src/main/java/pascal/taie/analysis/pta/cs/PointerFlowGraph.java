@@ -23,10 +23,19 @@
 package pascal.taie.analysis.pta.cs;
 
 import pascal.taie.analysis.pta.core.cs.element.Pointer;
+import pascal.taie.analysis.pta.pts.PointsToSet;
 import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * Represents pointer flow graph in context-sensitive pointer analysis.
@@ -39,19 +48,201 @@ class PointerFlowGraph {
     private final MultiMap<Pointer, Pointer> successors = Maps.newMultiMap();
 
     /**
-     * Adds an edge (source -> target) to this PFG.
+     * Default value of {@link #collapseThreshold}.
+     */
+    static final int DEFAULT_COLLAPSE_THRESHOLD = 1024;
+
+    /**
+     * Minimum number of edges added to this PFG before cycles are
+     * detected again.
+     */
+    private final int collapseThreshold;
+
+    /**
+     * Map from a pointer which has been merged into a cycle to
+     * the representative of the cycle.
+     */
+    private final Map<Pointer, Pointer> representatives = Maps.newMap();
+
+    /**
+     * Map from a representative to all pointers merged into it,
+     * including itself.
+     */
+    private final MultiMap<Pointer, Pointer> members = Maps.newMultiMap();
+
+    /**
+     * Number of edges added since cycles were detected last time.
+     */
+    private int newEdges;
+
+    /**
+     * @param collapseThreshold minimum number of edges added to this PFG
+     *                          before cycles are detected again; cycles
+     *                          are also not detected before a quarter of
+     *                          the edges of this PFG are new.
+     */
+    PointerFlowGraph(int collapseThreshold) {
+        this.collapseThreshold = collapseThreshold;
+    }
+
+    /**
+     * Adds an edge (source -> target) to this PFG. The edge is added
+     * between the representatives of the pointers, and no edge is added
+     * if the pointers have been merged into the same cycle.
      *
      * @return true if this PFG changed as a result of the call,
      * otherwise false.
      */
     boolean addEdge(Pointer source, Pointer target) {
-        return successors.put(source, target);
+        source = getRepresentative(source);
+        target = getRepresentative(target);
+        if (source != target && successors.put(source, target)) {
+            ++newEdges;
+            return true;
+        }
+        return false;
     }
 
     /**
      * @return successors of given pointer in the PFG.
      */
     Set<Pointer> getSuccsOf(Pointer pointer) {
-        return successors.get(pointer);
+        return successors.get(getRepresentative(pointer));
+    }
+
+    /**
+     * @return the representative of the cycle which given pointer has been
+     * merged into, or the pointer itself if it is not in any cycle.
+     */
+    Pointer getRepresentative(Pointer pointer) {
+        return representatives.getOrDefault(pointer, pointer);
+    }
+
+    /**
+     * @return the pointers which have been merged into the same cycle
+     * as given pointer, including the pointer itself.
+     */
+    Set<Pointer> getMembersOf(Pointer pointer) {
+        Pointer rep = getRepresentative(pointer);
+        Set<Pointer> merged = members.get(rep);
+        return merged.isEmpty() ? Set.of(rep) : merged;
+    }
+
+    /**
+     * Collapses the cycles of this PFG if enough edges have been added
+     * since the last time. The pointers of a cycle always end up with
+     * the same points-to set, so each cycle is merged into one
+     * representative, and its pointers share one points-to set
+     * from then on.
+     * <p>
+     * The shared set only holds the objects which were pointed to by all
+     * pointers of the cycle, as those objects have been processed for
+     * every pointer. The previous points-to set of each pointer is passed
+     * to {@code pending} together with the representative, so that
+     * the solver propagates the other objects to the whole cycle.
+     */
+    void collapseCycles(BiConsumer<Pointer, PointsToSet> pending) {
+        if (newEdges < Math.max(collapseThreshold, successors.size() >> 2)) {
+            return;
+        }
+        newEdges = 0;
+        List<List<Pointer>> cycles = findCycles();
+        if (cycles.isEmpty()) {
+            return;
+        }
+        for (List<Pointer> cycle : cycles) {
+            Pointer rep = cycle.get(0);
+            PointsToSet shared = rep.getPointsToSet();
+            List<Pointer> merged = new ArrayList<>();
+            for (Pointer pointer : cycle) {
+                shared = shared.intersect(pointer.getPointsToSet());
+                pending.accept(rep, pointer.getPointsToSet());
+                merged.addAll(getMembersOf(pointer));
+                members.removeAll(pointer);
+            }
+            for (Pointer pointer : merged) {
+                if (pointer != rep) {
+                    representatives.put(pointer, rep);
+                }
+                members.put(rep, pointer);
+                pointer.setPointsToSet(shared);
+            }
+        }
+        // redirects the edges to the representatives
+        List<Map.Entry<Pointer, Pointer>> edges =
+                new ArrayList<>(successors.entrySet());
+        successors.clear();
+        for (Map.Entry<Pointer, Pointer> edge : edges) {
+            Pointer source = getRepresentative(edge.getKey());
+            Pointer target = getRepresentative(edge.getValue());
+            if (source != target) {
+                successors.put(source, target);
+            }
+        }
+    }
+
+    /**
+     * Finds the strongly connected components of this PFG which consist of
+     * more than one pointer, by Tarjan's algorithm. The traversal keeps
+     * its own stack, as the PFG can be too deep for recursion.
+     */
+    private List<List<Pointer>> findCycles() {
+        Map<Pointer, Integer> indexes = Maps.newMap();
+        Map<Pointer, Integer> lowLinks = Maps.newMap();
+        Deque<Pointer> stack = new ArrayDeque<>();
+        Set<Pointer> onStack = Sets.newSet();
+        Deque<Pointer> path = new ArrayDeque<>();
+        Deque<Iterator<Pointer>> succIters = new ArrayDeque<>();
+        List<List<Pointer>> cycles = new ArrayList<>();
+        for (Pointer root : successors.keySet()) {
+            if (indexes.containsKey(root)) {
+                continue;
+            }
+            Pointer next = root;
+            while (next != null || !path.isEmpty()) {
+                if (next != null) {
+                    indexes.put(next, indexes.size());
+                    lowLinks.put(next, indexes.get(next));
+                    stack.push(next);
+                    onStack.add(next);
+                    path.push(next);
+                    succIters.push(successors.get(next).iterator());
+                    next = null;
+                    continue;
+                }
+                Pointer node = path.peek();
+                Iterator<Pointer> succIter = succIters.peek();
+                if (succIter.hasNext()) {
+                    Pointer succ = succIter.next();
+                    if (!indexes.containsKey(succ)) {
+                        next = succ;
+                    } else if (onStack.contains(succ)) {
+                        lowLinks.put(node, Math.min(lowLinks.get(node),
+                                indexes.get(succ)));
+                    }
+                    continue;
+                }
+                path.pop();
+                succIters.pop();
+                if (!path.isEmpty()) {
+                    Pointer parent = path.peek();
+                    lowLinks.put(parent, Math.min(lowLinks.get(parent),
+                            lowLinks.get(node)));
+                }
+                if (lowLinks.get(node).equals(indexes.get(node))) {
+                    List<Pointer> scc = new ArrayList<>();
+                    Pointer pointer;
+                    do {
+                        pointer = stack.pop();
+                        onStack.remove(pointer);
+                        scc.add(pointer);
+                    } while (pointer != node);
+                    if (scc.size() > 1) {
+                        cycles.add(scc);
+                    }
+                }
+            }
+        }
+        return cycles;
     }
 }
@@ -85,6 +85,16 @@ public class Solver {
         this.contextSelector = contextSelector;
     }
 
+    /**
+     * @return the value of option "collapse-threshold", i.e., the minimum
+     * number of new PFG edges before cycles are detected again, or
+     * {@link PointerFlowGraph#DEFAULT_COLLAPSE_THRESHOLD} if it is not given.
+     */
+    private static int getCollapseThreshold(AnalysisOptions options) {
+        return options.get("collapse-threshold") instanceof Integer threshold ?
+                threshold : PointerFlowGraph.DEFAULT_COLLAPSE_THRESHOLD;
+    }
+
     public AnalysisOptions getOptions() {
         return options;
     }
@@ -100,17 +110,32 @@ public class Solver {
     void solve() {
         initialize();
         analyze();
+        logWorkList();
         taintAnalysis.onFinish();
     }
 
+    /**
+     * Logs how many work-list entries were merged, compared to a work
+     * list which queues every added entry.
+     */
+    private void logWorkList() {
+        long added = workList.getAddedEntries();
+        long merged = workList.getMergedEntries();
+        logger.info("Work list: {} entries added, {} merged into pending sets, " +
+                        "{} polled (a work list without merging polls {})",
+                added, merged, added - merged, added);
+    }
+
     public void addTaintEntryToWorkList(Pointer pointer, CSObj taintObj) {
         workList.addEntry(pointer, PointsToSetFactory.make(taintObj));
     }
 
     private void initialize() {
+        PointsToSetFactory.setBitmap(
+                options.getBooleanOrDefault("bitmap-pts", false));
         csManager = new MapBasedCSManager();
         callGraph = new CSCallGraph(csManager);
-        pointerFlowGraph = new PointerFlowGraph();
+        pointerFlowGraph = new PointerFlowGraph(getCollapseThreshold(options));
         workList = new WorkList();
         taintAnalysis = new TaintAnalysiss(this);
         // process program entry, i.e., main method
@@ -250,27 +275,30 @@ public class Solver {
     private void analyze() {
         // TODO - finish me
         while(!workList.isEmpty()){
+            pointerFlowGraph.collapseCycles(workList::addEntry);
             WorkList.Entry entry = workList.pollEntry();
             PointsToSet dta = propagate(entry.pointer(), entry.pointsToSet());
 
-            if (entry.pointer() instanceof CSVar csvar) {
-                Var var = csvar.getVar();
-                Context context = csvar.getContext();
-                dta.forEach(csobj->{
-                    var.getLoadFields().forEach(loadField->{
-                        addPFGEdge(csManager.getInstanceField(csobj, loadField.getFieldRef().resolve()), csManager.getCSVar(context, loadField.getLValue()));
-                    });
-                    var.getStoreFields().forEach(storeField->{
-                        addPFGEdge(csManager.getCSVar(context, storeField.getRValue()), csManager.getInstanceField(csobj, storeField.getFieldRef().resolve()));
+            for (Pointer member : pointerFlowGraph.getMembersOf(entry.pointer())) {
+                if (member instanceof CSVar csvar) {
+                    Var var = csvar.getVar();
+                    Context context = csvar.getContext();
+                    dta.forEach(csobj->{
+                        var.getLoadFields().forEach(loadField->{
+                            addPFGEdge(csManager.getInstanceField(csobj, loadField.getFieldRef().resolve()), csManager.getCSVar(context, loadField.getLValue()));
+                        });
+                        var.getStoreFields().forEach(storeField->{
+                            addPFGEdge(csManager.getCSVar(context, storeField.getRValue()), csManager.getInstanceField(csobj, storeField.getFieldRef().resolve()));
+                        });
+                        var.getLoadArrays().forEach(loadArray->{
+                            addPFGEdge(csManager.getArrayIndex(csobj), csManager.getCSVar(context, loadArray.getLValue()));
+                        });
+                        var.getStoreArrays().forEach(storeArray->{
+                            addPFGEdge(csManager.getCSVar(context, storeArray.getRValue()), csManager.getArrayIndex(csobj));
+                        });
+                        processCall(csvar, csobj);
                     });
-                    var.getLoadArrays().forEach(loadArray->{
-                        addPFGEdge(csManager.getArrayIndex(csobj), csManager.getCSVar(context, loadArray.getLValue()));
-                    });
-                    var.getStoreArrays().forEach(storeArray->{
-                        addPFGEdge(csManager.getCSVar(context, storeArray.getRValue()), csManager.getArrayIndex(csobj));
-                    });
-                    processCall(csvar, csobj);
-                });
+                }
             }
         }
     }
@@ -281,13 +309,11 @@ public class Solver {
      */
     private PointsToSet propagate(Pointer pointer, PointsToSet pointsToSet) {
         // TODO - finish me
-        PointsToSet dta = PointsToSetFactory.make();
-        PointsToSet current = pointer.getPointsToSet();
+        PointsToSet dta = pointer.getPointsToSet().addAllDiff(pointsToSet);
         if (!pointsToSet.isEmpty()) {
-            pointsToSet.forEach(csObj -> {
-                if (current.addObject(csObj)) {
-                    dta.addObject(csObj);
-                    if (taintAnalysis.isTaint(csObj) && pointer instanceof CSVar csVar) {
+            dta.forEach(csObj -> {
+                for (Pointer member : pointerFlowGraph.getMembersOf(pointer)) {
+                    if (taintAnalysis.isTaint(csObj) && member instanceof CSVar csVar) {
                         for (Edge<CSCallSite, CSMethod> callEdge : callGraph.edges().toList()) {
                             boolean taintFlowToArg = false;
                             for (Var arg : callEdge.getCallSite().getCallSite().getInvokeExp().getArgs()) {
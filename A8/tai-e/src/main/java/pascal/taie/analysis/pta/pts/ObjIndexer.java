@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.pta.pts;
+
+import pascal.taie.analysis.pta.core.cs.element.CSObj;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives dense indexes to the context-sensitive objects, i.e., 0, 1, 2, ...
+ * in the order the objects are first added to a bitmap points-to set,
+ * and maps the indexes back to the objects.
+ *
+ * @see BitmapPointsToSet
+ */
+class ObjIndexer {
+
+    private final Map<CSObj, Integer> indexes = Maps.newMap();
+
+    /**
+     * Objects indexed by their indexes.
+     */
+    private final List<CSObj> objs = new ArrayList<>();
+
+    /**
+     * @return the index of given object, which is given to the object
+     * when it is first seen.
+     */
+    int getIndex(CSObj obj) {
+        Integer index = indexes.get(obj);
+        if (index == null) {
+            index = objs.size();
+            indexes.put(obj, index);
+            objs.add(obj);
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of given object, or -1 if the object
+     * has not been given an index.
+     */
+    int lookupIndex(CSObj obj) {
+        return indexes.getOrDefault(obj, -1);
+    }
+
+    /**
+     * @return the object of given index.
+     */
+    CSObj getObj(int index) {
+        return objs.get(index);
+    }
+}
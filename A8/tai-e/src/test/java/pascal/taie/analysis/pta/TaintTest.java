@@ -70,4 +70,13 @@ public class TaintTest {
         Tests.testCSPTA(DIR, "TaintInList",
                 "cs:2-obj;taint-config:src/test/resources/pta/taint/taint-config.yml");
     }
+
+    @Test
+    public void testCollapseCycles() {
+        // the library code reached by these cases forms cycles in the PFG
+        Tests.testCSPTA(DIR, "StringAppend",
+                "collapse-threshold:1;taint-config:src/test/resources/pta/taint/taint-config.yml");
+        Tests.testCSPTA(DIR, "TaintInList",
+                "cs:2-obj;collapse-threshold:1;taint-config:src/test/resources/pta/taint/taint-config.yml");
+    }
 }